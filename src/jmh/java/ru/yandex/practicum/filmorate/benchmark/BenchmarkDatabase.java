@@ -0,0 +1,202 @@
+package ru.yandex.practicum.filmorate.benchmark;
+
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.datasource.init.ScriptUtils;
+import ru.yandex.practicum.filmorate.FilmorateApplication;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.Date;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.stream.Stream;
+
+/**
+ * Встроенная H2 в памяти или в файле, заполненная синтетическими данными, и поднятый поверх нее контекст
+ * приложения. Данные заливаются до старта контекста, чтобы индексы в памяти строились так же, как при
+ * обычном запуске.
+ */
+final class BenchmarkDatabase {
+
+    private static final int BATCH_SIZE = 10_000;
+    private static final String FILE_URL_PREFIX = "jdbc:h2:file:";
+
+    private BenchmarkDatabase() {
+    }
+
+    static String createAndFill(int films, int users, long likes, int friendsPerUser) throws SQLException {
+        return createAndFill(false, films, users, likes, friendsPerUser);
+    }
+
+    /**
+     * @param onDisk база в файле во временном каталоге, как в профиле prod; иначе в памяти, где
+     *               настройки кэша страниц и отложенной записи ни на что не влияют
+     */
+    static String createAndFill(boolean onDisk, int films, int users, long likes, int friendsPerUser)
+            throws SQLException {
+        String name = "bench" + System.nanoTime();
+        String url = (onDisk ? FILE_URL_PREFIX + tempDirectory().resolve(name) : "jdbc:h2:mem:" + name)
+                + ";DB_CLOSE_DELAY=-1";
+        Random random = new Random(42);
+
+        try (Connection connection = DriverManager.getConnection(url, "sa", "password")) {
+            ScriptUtils.executeSqlScript(connection, new ClassPathResource("schema.sql"));
+            ScriptUtils.executeSqlScript(connection, new ClassPathResource("data.sql"));
+            connection.setAutoCommit(false);
+
+            try (PreparedStatement ps = connection.prepareStatement(
+                    "INSERT INTO films (name, description, release_date, duration, mpa_id) VALUES (?, ?, ?, ?, ?)")) {
+                for (int i = 1; i <= films; i++) {
+                    ps.setString(1, "Film " + i);
+                    ps.setString(2, "Description of film " + i);
+                    ps.setDate(3, Date.valueOf(LocalDate.of(1950 + i % 75, 1 + i % 12, 1 + i % 28)));
+                    ps.setInt(4, 60 + i % 120);
+                    ps.setInt(5, 1 + i % 5);
+                    addToBatch(ps, i, connection);
+                }
+                flush(ps, connection);
+            }
+
+            try (PreparedStatement ps = connection.prepareStatement(
+                    "INSERT INTO film_genres (film_id, genre_id) VALUES (?, ?)")) {
+                for (int i = 1; i <= films; i++) {
+                    ps.setInt(1, i);
+                    ps.setInt(2, 1 + i % 6);
+                    addToBatch(ps, i, connection);
+                    if (i % 3 == 0) {
+                        ps.setInt(1, i);
+                        ps.setInt(2, 1 + (i + 1) % 6);
+                        ps.addBatch();
+                    }
+                }
+                flush(ps, connection);
+            }
+
+            try (PreparedStatement ps = connection.prepareStatement(
+                    "INSERT INTO users (email, login, name, birthday) VALUES (?, ?, ?, ?)")) {
+                for (int i = 1; i <= users; i++) {
+                    ps.setString(1, "user" + i + "@example.com");
+                    ps.setString(2, "user" + i);
+                    ps.setString(3, "User " + i);
+                    ps.setDate(4, Date.valueOf(LocalDate.of(1960 + i % 50, 1 + i % 12, 1 + i % 28)));
+                    addToBatch(ps, i, connection);
+                }
+                flush(ps, connection);
+            }
+
+            // Каждый пользователь лайкает подряд идущие фильмы, начало диапазона смещено к первым id,
+            // чтобы популярность была неравномерной
+            int likesPerUser = (int) Math.min(films, Math.max(1, likes / users));
+            Timestamp now = new Timestamp(System.currentTimeMillis());
+            try (PreparedStatement ps = connection.prepareStatement(
+                    "INSERT INTO likes (film_id, user_id, like_timestamp) VALUES (?, ?, ?)")) {
+                long inserted = 0;
+                for (int user = 1; user <= users && inserted < likes; user++) {
+                    int start = (int) (films * Math.pow(random.nextDouble(), 3));
+                    for (int j = 0; j < likesPerUser && inserted < likes; j++) {
+                        ps.setInt(1, 1 + (start + j) % films);
+                        ps.setInt(2, user);
+                        ps.setTimestamp(3, now);
+                        addToBatch(ps, ++inserted, connection);
+                    }
+                }
+                flush(ps, connection);
+            }
+
+            try (PreparedStatement ps = connection.prepareStatement(
+                    "INSERT INTO friends (user_id, friend_id) VALUES (?, ?)")) {
+                long inserted = 0;
+                int friends = Math.min(friendsPerUser, (users - 1) / 97);
+                for (int user = 1; user <= users; user++) {
+                    for (int j = 0; j < friends; j++) {
+                        ps.setInt(1, user);
+                        ps.setInt(2, 1 + (user + j * 97) % users);
+                        addToBatch(ps, ++inserted, connection);
+                    }
+                }
+                flush(ps, connection);
+            }
+
+            // Счетчики в приложении ведутся вместе со вставкой, здесь строки заливались напрямую
+            try (Statement statement = connection.createStatement()) {
+                statement.executeUpdate("UPDATE films f SET like_count = " +
+                        "(SELECT COUNT(*) FROM likes l WHERE l.film_id = f.id)");
+                statement.executeUpdate("UPDATE users u SET friend_count = " +
+                        "(SELECT COUNT(*) FROM friends fr WHERE fr.user_id = u.user_id)");
+                connection.commit();
+            }
+        }
+        return url;
+    }
+
+    /**
+     * Закрывает базу и удаляет ее файлы вместе с временным каталогом, если она была на диске.
+     */
+    static void drop(String url) throws SQLException, IOException {
+        try (Connection connection = DriverManager.getConnection(url, "sa", "password");
+             Statement statement = connection.createStatement()) {
+            statement.execute("DROP ALL OBJECTS DELETE FILES");
+        }
+        if (url.startsWith(FILE_URL_PREFIX)) {
+            Files.deleteIfExists(Path.of(url.substring(FILE_URL_PREFIX.length(), url.indexOf(';'))).getParent());
+        }
+    }
+
+    static ConfigurableApplicationContext startContext(String url, String... args) {
+        return startContext(WebApplicationType.NONE, url, args);
+    }
+
+    /**
+     * Контекст со встроенным Tomcat на случайном порту, порт — в свойстве {@code local.server.port}.
+     */
+    static ConfigurableApplicationContext startWebContext(String url, String... args) {
+        return startContext(WebApplicationType.SERVLET, url,
+                Stream.concat(Stream.of("--server.port=0", "--logbook.filter.enabled=false"), Arrays.stream(args))
+                        .toArray(String[]::new));
+    }
+
+    private static ConfigurableApplicationContext startContext(WebApplicationType type, String url, String... args) {
+        // Передаем как аргументы командной строки: они перекрывают application.properties/yml
+        String[] allArgs = Stream.concat(
+                Stream.of(
+                        "--spring.datasource.url=" + url,
+                        "--spring.sql.init.mode=never",
+                        "--logging.level.root=WARN"),
+                Arrays.stream(args)).toArray(String[]::new);
+        return new SpringApplicationBuilder(FilmorateApplication.class)
+                .web(type)
+                .run(allArgs);
+    }
+
+    private static Path tempDirectory() {
+        try {
+            return Files.createTempDirectory("filmorate-bench");
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static void addToBatch(PreparedStatement ps, long count, Connection connection) throws SQLException {
+        ps.addBatch();
+        if (count % BATCH_SIZE == 0) {
+            flush(ps, connection);
+        }
+    }
+
+    private static void flush(PreparedStatement ps, Connection connection) throws SQLException {
+        ps.executeBatch();
+        connection.commit();
+    }
+}
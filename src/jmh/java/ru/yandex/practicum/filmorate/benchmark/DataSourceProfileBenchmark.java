@@ -0,0 +1,115 @@
+package ru.yandex.practicum.filmorate.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.storage.FilmStorage;
+import ru.yandex.practicum.filmorate.storage.LikeIndex;
+import ru.yandex.practicum.filmorate.storage.LongArraySets;
+
+import java.io.IOException;
+import java.sql.SQLException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Задержка отдельных запросов хранилища с настройками пула и H2 по умолчанию и из профиля prod.
+ * Кэш страниц, отложенная запись и сжатие из профиля prod работают только для базы в файле,
+ * в памяти сравниваются лишь размер пула и кэш разобранных запросов.
+ * Пример: -Djmh.args="DataSourceProfileBenchmark -p profile=prod -p store=file".
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Threads(8)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms2g", "-Xmx2g"})
+public class DataSourceProfileBenchmark {
+
+    @Param({"default", "prod"})
+    private String profile;
+
+    @Param({"mem", "file"})
+    private String store;
+
+    @Param("100000")
+    private int films;
+
+    @Param("100000")
+    private int users;
+
+    // По умолчанию getFilmById идет в БД, а не в кэш собранных фильмов
+    @Param("false")
+    private boolean filmCache;
+
+    private String url;
+    private ConfigurableApplicationContext context;
+    private FilmStorage filmStorage;
+    private LikeIndex likeIndex;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        url = BenchmarkDatabase.createAndFill("file".equals(store), films, users, users * 10L, 20);
+        context = BenchmarkDatabase.startContext(url, "--spring.profiles.active=" + profile,
+                "--filmorate.films.cache.enabled=" + filmCache);
+        filmStorage = context.getBean(FilmStorage.class);
+        likeIndex = context.getBean(LikeIndex.class);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws SQLException, IOException {
+        context.close();
+        BenchmarkDatabase.drop(url);
+    }
+
+    @Benchmark
+    public Film getFilmById() {
+        return filmStorage.getFilmById(randomId(films));
+    }
+
+    /**
+     * Лайк ставится и сразу снимается, чтобы число лайков не росло от итерации к итерации.
+     * У каждого потока свой пользователь, поэтому потоки не конфликтуют за одну пару фильм/пользователь.
+     */
+    @Benchmark
+    public void addLike(LikingUser user) {
+        long filmId;
+        do {
+            filmId = randomId(films);
+        } while (LongArraySets.contains(likeIndex.getFilmIds(user.id), filmId));
+        filmStorage.addLike(filmId, user.id);
+        filmStorage.removeLike(filmId, user.id);
+    }
+
+    @State(Scope.Thread)
+    public static class LikingUser {
+
+        private static final AtomicLong NEXT_ID = new AtomicLong();
+
+        private long id;
+
+        @Setup(Level.Trial)
+        public void setUp() {
+            id = NEXT_ID.incrementAndGet();
+        }
+    }
+
+    private static long randomId(int bound) {
+        return 1 + ThreadLocalRandom.current().nextInt(bound);
+    }
+}
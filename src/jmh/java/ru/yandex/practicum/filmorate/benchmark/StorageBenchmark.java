@@ -0,0 +1,149 @@
+package ru.yandex.practicum.filmorate.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.context.ConfigurableApplicationContext;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.FriendSuggestion;
+import ru.yandex.practicum.filmorate.model.User;
+import ru.yandex.practicum.filmorate.service.FriendSuggestionService;
+import ru.yandex.practicum.filmorate.service.RecommendationService;
+import ru.yandex.practicum.filmorate.storage.FilmSearchIndex;
+import ru.yandex.practicum.filmorate.storage.FilmStorage;
+import ru.yandex.practicum.filmorate.storage.FriendshipStorage;
+import ru.yandex.practicum.filmorate.storage.UserStorage;
+
+import java.util.Collection;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Горячие пути хранилищ на заполненной встроенной H2.
+ * Объем данных задается параметрами, например: -Djmh.args="-p users=10000 -p likes=100000".
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms4g", "-Xmx4g"})
+public class StorageBenchmark {
+
+    @Param("100000")
+    private int films;
+
+    @Param("1000000")
+    private int users;
+
+    @Param("10000000")
+    private long likes;
+
+    @Param("20")
+    private int friendsPerUser;
+
+    // По умолчанию getFilmById идет в БД, а не в кэш собранных фильмов
+    @Param("false")
+    private boolean filmCache;
+
+    private ConfigurableApplicationContext context;
+    private FilmStorage filmStorage;
+    private UserStorage userStorage;
+    private FriendshipStorage friendshipStorage;
+    private FriendSuggestionService friendSuggestionService;
+    private RecommendationService recommendationService;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        String url = BenchmarkDatabase.createAndFill(films, users, likes, friendsPerUser);
+        context = BenchmarkDatabase.startContext(url, "--filmorate.films.cache.enabled=" + filmCache);
+        filmStorage = context.getBean(FilmStorage.class);
+        userStorage = context.getBean(UserStorage.class);
+        friendshipStorage = context.getBean(FriendshipStorage.class);
+        friendSuggestionService = context.getBean(FriendSuggestionService.class);
+        recommendationService = context.getBean(RecommendationService.class);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public Collection<Film> getPopularFilms() {
+        return filmStorage.getPopularFilms(10, null, null);
+    }
+
+    @Benchmark
+    public Collection<Film> getPopularFilmsByGenreAndYear() {
+        return filmStorage.getPopularFilms(10, 1 + ThreadLocalRandom.current().nextLong(6),
+                1950 + ThreadLocalRandom.current().nextInt(75));
+    }
+
+    @Benchmark
+    public List<Film> searchFilms() {
+        return filmStorage.searchFilms("film " + randomId(films), EnumSet.allOf(FilmSearchIndex.Field.class), 20);
+    }
+
+    @Benchmark
+    public Film getFilmById() {
+        return filmStorage.getFilmById(randomId(films));
+    }
+
+    @Benchmark
+    public List<Long> getCommonFriendIds() {
+        return friendshipStorage.getCommonFriendIds(randomId(users), randomId(users));
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SampleTime)
+    public List<FriendSuggestion> getFriendSuggestions() {
+        return friendSuggestionService.getSuggestions(randomId(users), 10);
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SampleTime)
+    public List<Film> getRecommendations() {
+        return recommendationService.getRecommendations(randomId(users), 10);
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    @Measurement(iterations = 3, time = 5)
+    public Collection<User> findAllUsers() {
+        return userStorage.findAllUsers();
+    }
+
+    @Benchmark
+    public List<Film> filmRowMapperPage() {
+        return filmStorage.findFilmsAfter(randomId(films) - 1, 100);
+    }
+
+    @Benchmark
+    public List<User> userRowMapperPage() {
+        return userStorage.findUsersAfter(randomId(users) - 1, 100);
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public void userRowMapperExport(Blackhole blackhole) {
+        userStorage.forEachUser(blackhole::consume);
+    }
+
+    private static long randomId(int bound) {
+        return 1 + ThreadLocalRandom.current().nextInt(bound);
+    }
+}
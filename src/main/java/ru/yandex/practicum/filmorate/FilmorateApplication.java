@@ -2,7 +2,9 @@ package ru.yandex.practicum.filmorate;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
+@EnableScheduling
 @SpringBootApplication(scanBasePackages = {"ru.yandex.practicum.filmorate", "ru.yandex.practicum.filmorate.exception"})
 public class FilmorateApplication {
     public static void main(String[] args) {
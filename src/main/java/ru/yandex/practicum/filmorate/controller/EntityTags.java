@@ -0,0 +1,45 @@
+package ru.yandex.practicum.filmorate.controller;
+
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.context.request.WebRequest;
+
+import java.util.StringJoiner;
+import java.util.function.Supplier;
+
+/**
+ * Сильные ETag из версий данных, без сериализации и хэширования тела ответа.
+ * Версии хранятся в памяти и после перезапуска начинаются заново, поэтому в тег входит момент старта:
+ * тег, выданный до перезапуска, не совпадет с новым.
+ */
+final class EntityTags {
+
+    private static final String BOOT_EPOCH = Long.toString(System.currentTimeMillis(), Character.MAX_RADIX);
+
+    private EntityTags() {
+    }
+
+    static String of(String kind, Object... parts) {
+        StringJoiner tag = new StringJoiner("-", "\"", "\"");
+        tag.add(kind).add(BOOT_EPOCH);
+        for (Object part : parts) {
+            tag.add(String.valueOf(part));
+        }
+        return tag.toString();
+    }
+
+    /**
+     * 304 без тела, если у клиента тег {@code etag}, иначе 200 с телом. Тело запрашивается только во втором случае.
+     * Тег нужно вычислять до загрузки тела: если данные изменятся между ними, клиент получит
+     * новое тело со старым тегом и при следующем запросе просто скачает его заново.
+     */
+    static <T> ResponseEntity<T> conditional(WebRequest request, String etag, CacheControl cacheControl,
+                                             Supplier<T> body) {
+        if (request.checkNotModified(etag)) {
+            // ETag в ответ уже добавил checkNotModified
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).cacheControl(cacheControl).build();
+        }
+        return ResponseEntity.ok().eTag(etag).cacheControl(cacheControl).body(body.get());
+    }
+}
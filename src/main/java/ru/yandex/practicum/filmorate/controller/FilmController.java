@@ -1,26 +1,44 @@
 package ru.yandex.practicum.filmorate.controller;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import jakarta.validation.Valid;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.CacheControl;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import ru.yandex.practicum.filmorate.model.CursorPage;
 import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.FilmImportResult;
 import ru.yandex.practicum.filmorate.service.FilmService;
 
+import java.io.InputStream;
 import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
 
 @RestController
 @RequestMapping("/films")
 @Slf4j
 public class FilmController {
 
+    // Фильм может измениться в любой момент, поэтому кэши обязаны каждый раз сверять ETag
+    private static final CacheControl FILM_CACHE_CONTROL = CacheControl.noCache().cachePublic();
+
     private final FilmService filmService;
+    private final NdjsonResponseWriter ndjsonResponseWriter;
+    private final ObjectMapper objectMapper;
 
     @Autowired
-    public FilmController(FilmService filmService) {
+    public FilmController(FilmService filmService, NdjsonResponseWriter ndjsonResponseWriter,
+                          ObjectMapper objectMapper) {
         this.filmService = filmService;
+        this.ndjsonResponseWriter = ndjsonResponseWriter;
+        this.objectMapper = objectMapper;
     }
 
     @GetMapping
@@ -29,24 +47,63 @@ public class FilmController {
         return new ResponseEntity<>(filmService.getAllFilms(), HttpStatus.OK);
     }
 
+    @GetMapping(params = "limit")
+    public ResponseEntity<CursorPage<Film>> getFilmsPage(@RequestParam(defaultValue = "0") long after,
+                                                         @RequestParam int limit) {
+        log.info("Получен запрос на получение страницы фильмов: after={}, limit={}", after, limit);
+        return new ResponseEntity<>(filmService.getFilmsPage(after, limit), HttpStatus.OK);
+    }
+
+    @GetMapping(value = "/export", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> exportFilms() {
+        log.info("Получен запрос на выгрузку всех фильмов");
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(ndjsonResponseWriter.stream(filmService::forEachFilm));
+    }
+
     @PostMapping
     public ResponseEntity<Film> createFilm(@Valid @RequestBody Film film) {
         Film createdFilm = filmService.createFilm(film);
         return new ResponseEntity<>(createdFilm, HttpStatus.CREATED);
     }
 
+    @PostMapping(value = "/batch", consumes = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<FilmImportResult> importFilms(@RequestBody List<Film> films) {
+        log.info("Получен запрос на пакетное создание фильмов: {} шт.", films.size());
+        return new ResponseEntity<>(filmService.importFilms(films.iterator()), HttpStatus.OK);
+    }
+
+    @PostMapping(value = "/batch", consumes = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<FilmImportResult> importFilmStream(InputStream body) {
+        log.info("Получен запрос на потоковое создание фильмов");
+        Iterator<Film> films = new NdjsonLineIterator<>(body, objectMapper.readerFor(Film.class));
+        return new ResponseEntity<>(filmService.importFilms(films), HttpStatus.OK);
+    }
+
     @PutMapping
     public ResponseEntity<Film> updateFilm(@Valid @RequestBody Film film) {
         log.info("Получен запрос на обновление фильма: {}", film);
         return new ResponseEntity<>(filmService.updateFilm(film), HttpStatus.OK);
     }
 
+    @GetMapping("/search")
+    public ResponseEntity<List<Film>> searchFilms(@RequestParam String q,
+                                                  @RequestParam(defaultValue = "title") List<String> by,
+                                                  @RequestParam(defaultValue = "20") int limit) {
+        log.info("Получен запрос на поиск фильмов: q={}, by={}", q, by);
+        return new ResponseEntity<>(filmService.searchFilms(q, by, limit), HttpStatus.OK);
+    }
+
     @GetMapping("/{id}")
-    public ResponseEntity<Film> getFilmById(@PathVariable Long id) {
+    public ResponseEntity<Film> getFilmById(@PathVariable Long id, WebRequest request) {
         log.info("Получен запрос на получение фильма с id: {}", id);
-        Film film = filmService.getFilmById(id);
-        log.info("FilmService: Фильм с id {} получен: {}", id, film);
-        return new ResponseEntity<>(film, HttpStatus.OK);
+        String etag = EntityTags.of("film", id, filmService.getFilmVersion(id));
+        return EntityTags.conditional(request, etag, FILM_CACHE_CONTROL, () -> {
+            Film film = filmService.getFilmById(id);
+            log.info("FilmService: Фильм с id {} получен: {}", id, film);
+            return film;
+        });
     }
 
     @PutMapping("/{id}/like/{userId}")
@@ -64,10 +121,16 @@ public class FilmController {
     }
 
     @GetMapping("/popular")
-    public ResponseEntity<Collection<Film>> getPopularFilms(@RequestParam(defaultValue = "10") int count) {
-        log.info("Получен запрос на получение {} популярных фильмов", count);
+    public ResponseEntity<Collection<Film>> getPopularFilms(@RequestParam(defaultValue = "10") int count,
+                                                            @RequestParam(required = false) String window,
+                                                            @RequestParam(required = false) Long genreId,
+                                                            @RequestParam(required = false) Integer year) {
+        log.info("Получен запрос на получение {} популярных фильмов, окно: {}, genreId: {}, год: {}",
+                count, window, genreId, year);
 
-        Collection<Film> popularFilms = filmService.getPopularFilms(count);
+        Collection<Film> popularFilms = window == null
+                ? filmService.getPopularFilms(count, genreId, year)
+                : filmService.getTrendingFilms(count, window, genreId, year);
         return new ResponseEntity<>(popularFilms, HttpStatus.OK);
     }
 
@@ -2,14 +2,18 @@ package ru.yandex.practicum.filmorate.controller;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.CacheControl;
+import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Service;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
 import ru.yandex.practicum.filmorate.model.Genre;
 import ru.yandex.practicum.filmorate.service.GenreService;
 
+import java.time.Duration;
 import java.util.Collection;
 
 @Service
@@ -19,17 +23,22 @@ import java.util.Collection;
 @Slf4j
 public class GenreController {
 
+    // Справочник меняется только при обновлении приложения, час устаревания допустим
+    private static final CacheControl CACHE_CONTROL = CacheControl.maxAge(Duration.ofHours(1)).cachePublic();
+
     private final GenreService genreService;
 
     @GetMapping("/{id}")
-    public Genre getGenreById(@PathVariable Long id) {
+    public ResponseEntity<Genre> getGenreById(@PathVariable Long id, WebRequest request) {
         log.info("Получен запрос на получение жанра: {}", id);
-        return genreService.getGenreById(id);
+        return EntityTags.conditional(request, EntityTags.of("genre", id, genreService.getVersion()), CACHE_CONTROL,
+                () -> genreService.getGenreById(id));
     }
 
     @GetMapping
-    public Collection<Genre> getAllGenres() {
+    public ResponseEntity<Collection<Genre>> getAllGenres(WebRequest request) {
         log.info("Получен запрос на вывод списка жанров");
-        return genreService.getAllGenres();
+        return EntityTags.conditional(request, EntityTags.of("genres", genreService.getVersion()), CACHE_CONTROL,
+                genreService::getAllGenres);
     }
 }
\ No newline at end of file
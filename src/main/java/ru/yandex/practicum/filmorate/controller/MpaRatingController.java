@@ -2,15 +2,17 @@ package ru.yandex.practicum.filmorate.controller;
 
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.http.HttpStatus;
+import org.springframework.http.CacheControl;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
 import ru.yandex.practicum.filmorate.model.MpaRating;
 import ru.yandex.practicum.filmorate.service.MpaRatingService;
 
+import java.time.Duration;
 import java.util.Collection;
 
 @RestController
@@ -18,6 +20,8 @@ import java.util.Collection;
 @Slf4j
 public class MpaRatingController {
 
+    private static final CacheControl CACHE_CONTROL = CacheControl.maxAge(Duration.ofHours(1)).cachePublic();
+
     private final MpaRatingService mpaRatingService;
 
     @Autowired
@@ -26,19 +30,16 @@ public class MpaRatingController {
     }
 
     @GetMapping
-    public ResponseEntity<Collection<MpaRating>> getAllMpaRatings() {
+    public ResponseEntity<Collection<MpaRating>> getAllMpaRatings(WebRequest request) {
         log.info("Получен запрос на получение всех рейтингов MPA");
-        return new ResponseEntity<>(mpaRatingService.getAllMpaRatings(), HttpStatus.OK);
+        return EntityTags.conditional(request, EntityTags.of("mpa", mpaRatingService.getVersion()), CACHE_CONTROL,
+                mpaRatingService::getAllMpaRatings);
     }
 
     @GetMapping("/{id}")
-    public ResponseEntity<MpaRating> getMpaRatingById(@PathVariable Long id) {
+    public ResponseEntity<MpaRating> getMpaRatingById(@PathVariable Long id, WebRequest request) {
         log.info("Получен запрос на получение рейтинга MPA с id: {}", id);
-        MpaRating mpaRating = mpaRatingService.getMpaRatingById(id);
-        if (mpaRating == null) {
-            log.warn("Рейтинг MPA с id {} не найден", id);
-            return new ResponseEntity<>(HttpStatus.NOT_FOUND);
-        }
-        return new ResponseEntity<>(mpaRating, HttpStatus.OK);
+        String etag = EntityTags.of("mpa", id, mpaRatingService.getVersion());
+        return EntityTags.conditional(request, etag, CACHE_CONTROL, () -> mpaRatingService.getMpaRatingById(id));
     }
 }
\ No newline at end of file
@@ -4,14 +4,22 @@ import jakarta.validation.Valid;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import ru.yandex.practicum.filmorate.exception.UserNotFoundException;
+import ru.yandex.practicum.filmorate.model.CursorPage;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.FriendSuggestion;
 import ru.yandex.practicum.filmorate.model.User;
+import ru.yandex.practicum.filmorate.service.FriendSuggestionService;
 import ru.yandex.practicum.filmorate.service.FriendshipService;
+import ru.yandex.practicum.filmorate.service.RecommendationService;
 import ru.yandex.practicum.filmorate.service.UserService;
 
 import java.util.Collection;
+import java.util.List;
 import java.util.Map;
 
 @RestController
@@ -21,11 +29,20 @@ public class UserController {
 
     private final UserService userService;
     private final FriendshipService friendshipService;
+    private final FriendSuggestionService friendSuggestionService;
+    private final RecommendationService recommendationService;
+    private final NdjsonResponseWriter ndjsonResponseWriter;
 
     @Autowired
-    public UserController(UserService userService, FriendshipService friendshipService) {
+    public UserController(UserService userService, FriendshipService friendshipService,
+                          FriendSuggestionService friendSuggestionService,
+                          RecommendationService recommendationService,
+                          NdjsonResponseWriter ndjsonResponseWriter) {
         this.userService = userService;
         this.friendshipService = friendshipService;
+        this.friendSuggestionService = friendSuggestionService;
+        this.recommendationService = recommendationService;
+        this.ndjsonResponseWriter = ndjsonResponseWriter;
     }
 
     @GetMapping
@@ -35,6 +52,21 @@ public class UserController {
         return new ResponseEntity<>(users, HttpStatus.OK);
     }
 
+    @GetMapping(params = "limit")
+    public ResponseEntity<CursorPage<User>> getUsersPage(@RequestParam(defaultValue = "0") long after,
+                                                         @RequestParam int limit) {
+        log.info("Получен запрос на получение страницы пользователей: after={}, limit={}", after, limit);
+        return new ResponseEntity<>(userService.getUsersPage(after, limit), HttpStatus.OK);
+    }
+
+    @GetMapping(value = "/export", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> exportUsers() {
+        log.info("Получен запрос на выгрузку всех пользователей");
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(ndjsonResponseWriter.stream(userService::forEachUser));
+    }
+
     @PostMapping
     public ResponseEntity<User> createUser(@Valid @RequestBody User user) {
         log.info("Получен запрос на создание пользователя: {}", user);
@@ -84,6 +116,22 @@ public class UserController {
         return new ResponseEntity<>(commonFriends, HttpStatus.OK);
     }
 
+    @GetMapping("/{id}/friends/suggestions")
+    public ResponseEntity<List<FriendSuggestion>> getFriendSuggestions(@PathVariable Long id,
+                                                                       @RequestParam(defaultValue = "10") int limit) {
+        log.info("Получен запрос на рекомендации друзей: userId={}, limit={}", id, limit);
+        List<FriendSuggestion> suggestions = friendSuggestionService.getSuggestions(id, limit);
+        return new ResponseEntity<>(suggestions, HttpStatus.OK);
+    }
+
+    @GetMapping("/{id}/recommendations")
+    public ResponseEntity<List<Film>> getRecommendations(@PathVariable Long id,
+                                                         @RequestParam(defaultValue = "10") int limit) {
+        log.info("Получен запрос на рекомендации фильмов: userId={}, limit={}", id, limit);
+        List<Film> recommendations = recommendationService.getRecommendations(id, limit);
+        return new ResponseEntity<>(recommendations, HttpStatus.OK);
+    }
+
     @ExceptionHandler
     public ResponseEntity<Map<String, String>> handleUserNotFoundException(final UserNotFoundException e) {
         return new ResponseEntity<>(
@@ -1,8 +1,11 @@
 package ru.yandex.practicum.filmorate.exception;
 
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.jdbc.CannotGetJdbcConnectionException;
+import org.springframework.transaction.CannotCreateTransactionException;
 import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.RestControllerAdvice;
@@ -40,6 +43,19 @@ public class GlobalExceptionHandler {
     return createErrorResponse(e.getMessage(), HttpStatus.NOT_FOUND);
   }
 
+  @ExceptionHandler(ConditionsNotMetException.class)
+  public ResponseEntity<Map<String, String>> handleConditionsNotMetException(ConditionsNotMetException e) {
+    return createErrorResponse(e.getMessage(), HttpStatus.BAD_REQUEST);
+  }
+
+  @ExceptionHandler({CannotGetJdbcConnectionException.class, CannotCreateTransactionException.class})
+  public ResponseEntity<Map<String, String>> handleDatabaseBusy(Exception e) {
+    log.warn("Нет свободного соединения с БД: {}", e.getMessage());
+    return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+        .header(HttpHeaders.RETRY_AFTER, "1")
+        .body(Map.of("error", "Сервис перегружен, повторите запрос позже"));
+  }
+
   @ExceptionHandler(MethodArgumentNotValidException.class)
   public ResponseEntity<Map<String, String>> handleMethodArgumentNotValidException(MethodArgumentNotValidException ex) {
     Map<String, String> errors = new HashMap<>();
@@ -1,5 +1,6 @@
 package ru.yandex.practicum.filmorate.model;
 
+import com.fasterxml.jackson.annotation.JsonProperty;
 import jakarta.validation.constraints.Min;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.Size;
@@ -23,7 +24,9 @@ public class Film {
     private LocalDate releaseDate;
     @Min(value = 1, message = "Продолжительность фильма должна быть положительной")
     private int duration;
-    private Set<Long> likes = new HashSet<>();
+    // Ведется в БД вместе с лайками, сами лайки в модель не загружаются
+    @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+    private int likeCount;
     private MpaRating mpa;
     private Set<Genre> genres = new HashSet<>();
 }
\ No newline at end of file
@@ -0,0 +1,13 @@
+package ru.yandex.practicum.filmorate.model;
+
+import lombok.Data;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+public class FilmImportResult {
+    private int received;
+    private List<Long> createdIds = new ArrayList<>();
+    private List<ImportError> errors = new ArrayList<>();
+}
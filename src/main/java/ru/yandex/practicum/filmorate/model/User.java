@@ -1,5 +1,6 @@
 package ru.yandex.practicum.filmorate.model;
 
+import com.fasterxml.jackson.annotation.JsonProperty;
 import jakarta.validation.constraints.Email;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
@@ -9,8 +10,6 @@ import lombok.EqualsAndHashCode;
 import ru.yandex.practicum.filmorate.validator.ValidLogin;
 
 import java.time.LocalDate;
-import java.util.HashSet;
-import java.util.Set;
 
 @Data
 @EqualsAndHashCode(of = {"id", "email"})
@@ -25,7 +24,8 @@ public class User {
     @NotNull(message = "Дата рождения не может быть null")
     @PastOrPresent(message = "Дата рождения не может быть в будущем")
     private LocalDate birthday;
-    private Set<Long> friends = new HashSet<>();
+    @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+    private int friendCount;
 
     public String getName() {
         if (name == null || name.isEmpty()) {
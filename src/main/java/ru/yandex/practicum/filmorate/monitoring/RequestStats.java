@@ -0,0 +1,48 @@
+package ru.yandex.practicum.filmorate.monitoring;
+
+/**
+ * Счетчики обращений к хранилищам в рамках текущего HTTP-запроса.
+ * Заполняются {@link StorageMonitoringAspect}, читаются {@link RequestSummaryFilter}.
+ */
+public final class RequestStats {
+
+    private static final ThreadLocal<RequestStats> CURRENT = new ThreadLocal<>();
+
+    private int calls;
+    private long rows;
+    private long nanos;
+
+    private RequestStats() {
+    }
+
+    static RequestStats start() {
+        RequestStats stats = new RequestStats();
+        CURRENT.set(stats);
+        return stats;
+    }
+
+    static void finish() {
+        CURRENT.remove();
+    }
+
+    static void record(long elapsedNanos, long resultRows) {
+        RequestStats stats = CURRENT.get();
+        if (stats != null) {
+            stats.calls++;
+            stats.rows += resultRows;
+            stats.nanos += elapsedNanos;
+        }
+    }
+
+    public int getCalls() {
+        return calls;
+    }
+
+    public long getRows() {
+        return rows;
+    }
+
+    public long getMillis() {
+        return nanos / 1_000_000;
+    }
+}
@@ -0,0 +1,53 @@
+package ru.yandex.practicum.filmorate.monitoring;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Одна строка итогов на запрос вместо построчных логов: статус, время, число обращений к БД,
+ * записей и время в хранилищах. Пишется для доли {@code sample-rate} запросов,
+ * а также для всех медленных и завершившихся ошибкой сервера.
+ */
+@Component
+@Slf4j
+public class RequestSummaryFilter extends OncePerRequestFilter {
+
+    private final double sampleRate;
+    private final long slowThresholdNanos;
+
+    public RequestSummaryFilter(@Value("${filmorate.logging.request-summary.sample-rate:0.01}") double sampleRate,
+                                @Value("${filmorate.logging.request-summary.slow-threshold:500ms}")
+                                Duration slowThreshold) {
+        this.sampleRate = sampleRate;
+        this.slowThresholdNanos = slowThreshold.toNanos();
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        long start = System.nanoTime();
+        RequestStats stats = RequestStats.start();
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            RequestStats.finish();
+            long elapsed = System.nanoTime() - start;
+            if (elapsed >= slowThresholdNanos || response.getStatus() >= 500
+                    || ThreadLocalRandom.current().nextDouble() < sampleRate) {
+                log.info("{} {} -> {} за {} мс: обращений к БД {}, записей {}, время в БД {} мс",
+                        request.getMethod(), request.getRequestURI(), response.getStatus(), elapsed / 1_000_000,
+                        stats.getCalls(), stats.getRows(), stats.getMillis());
+            }
+        }
+    }
+}
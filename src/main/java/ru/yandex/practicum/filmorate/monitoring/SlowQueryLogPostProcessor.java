@@ -0,0 +1,63 @@
+package ru.yandex.practicum.filmorate.monitoring;
+
+import lombok.extern.slf4j.Slf4j;
+import net.ttddyy.dsproxy.ExecutionInfo;
+import net.ttddyy.dsproxy.QueryInfo;
+import net.ttddyy.dsproxy.listener.QueryExecutionListener;
+import net.ttddyy.dsproxy.listener.logging.DefaultQueryLogEntryCreator;
+import net.ttddyy.dsproxy.support.ProxyDataSource;
+import net.ttddyy.dsproxy.support.ProxyDataSourceBuilder;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Оборачивает DataSource так, чтобы запросы дольше {@code filmorate.logging.slow-query-threshold}
+ * писались в лог с текстом SQL и параметрами. Порог 0 отключает обертку.
+ */
+@Component
+@Slf4j
+public class SlowQueryLogPostProcessor implements BeanPostProcessor {
+
+    private final long thresholdMillis;
+
+    public SlowQueryLogPostProcessor(@Value("${filmorate.logging.slow-query-threshold:200ms}") Duration threshold) {
+        this.thresholdMillis = threshold.toMillis();
+    }
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) {
+        if (thresholdMillis <= 0 || !(bean instanceof DataSource dataSource) || bean instanceof ProxyDataSource) {
+            return bean;
+        }
+        return ProxyDataSourceBuilder.create(dataSource)
+                .name(beanName)
+                .listener(new SlowQueryListener(thresholdMillis))
+                .build();
+    }
+
+    private static final class SlowQueryListener implements QueryExecutionListener {
+
+        private final long thresholdMillis;
+        private final DefaultQueryLogEntryCreator entryCreator = new DefaultQueryLogEntryCreator();
+
+        SlowQueryListener(long thresholdMillis) {
+            this.thresholdMillis = thresholdMillis;
+        }
+
+        @Override
+        public void beforeQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+        }
+
+        @Override
+        public void afterQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+            if (execInfo.getElapsedTime() >= thresholdMillis) {
+                log.warn("Медленный запрос: {}", entryCreator.getLogEntry(execInfo, queryInfoList, false, false, false));
+            }
+        }
+    }
+}
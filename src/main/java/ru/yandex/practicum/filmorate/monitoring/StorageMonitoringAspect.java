@@ -0,0 +1,102 @@
+package ru.yandex.practicum.filmorate.monitoring;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.springframework.stereotype.Component;
+
+import java.lang.reflect.Method;
+import java.util.Collection;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Замеряет время и число возвращенных записей для публичных методов хранилищ, работающих с БД.
+ * Результаты идут в метрики Micrometer с тегами storage и method и в счетчики текущего запроса.
+ */
+@Aspect
+@Component
+public class StorageMonitoringAspect {
+
+    private final MeterRegistry meterRegistry;
+    private final ConcurrentHashMap<Method, StorageMeters> meters = new ConcurrentHashMap<>();
+
+    public StorageMonitoringAspect(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Around("execution(public * ru.yandex.practicum.filmorate.storage.*DbStorage.*(..))")
+    public Object measure(ProceedingJoinPoint joinPoint) throws Throwable {
+        StorageMeters storageMeters = meters.computeIfAbsent(((MethodSignature) joinPoint.getSignature()).getMethod(),
+                method -> new StorageMeters(meterRegistry, joinPoint.getTarget().getClass().getSimpleName(),
+                        method.getName()));
+        long start = System.nanoTime();
+        try {
+            Object result = joinPoint.proceed();
+            long elapsed = System.nanoTime() - start;
+            long rows = rowsOf(result);
+            storageMeters.success().record(elapsed, TimeUnit.NANOSECONDS);
+            storageMeters.rows().record(rows);
+            RequestStats.record(elapsed, rows);
+            return result;
+        } catch (Throwable e) {
+            long elapsed = System.nanoTime() - start;
+            storageMeters.error().record(elapsed, TimeUnit.NANOSECONDS);
+            Counter.builder("filmorate.storage.errors")
+                    .description("Исключения в методах хранилищ")
+                    .tags("storage", storageMeters.storage(), "method", storageMeters.method(),
+                            "exception", e.getClass().getSimpleName())
+                    .register(meterRegistry)
+                    .increment();
+            RequestStats.record(elapsed, 0);
+            throw e;
+        }
+    }
+
+    private static long rowsOf(Object result) {
+        if (result == null) {
+            return 0;
+        }
+        if (result instanceof Collection<?> collection) {
+            return collection.size();
+        }
+        if (result instanceof Map<?, ?> map) {
+            return map.size();
+        }
+        if (result instanceof Optional<?> optional) {
+            return optional.isPresent() ? 1 : 0;
+        }
+        if (result instanceof Boolean) {
+            return 0;
+        }
+        return 1;
+    }
+
+    private record StorageMeters(String storage, String method, Timer success, Timer error,
+                                 DistributionSummary rows) {
+
+        StorageMeters(MeterRegistry registry, String storage, String method) {
+            this(storage, method, timer(registry, storage, method, "success"), timer(registry, storage, method, "error"),
+                    DistributionSummary.builder("filmorate.storage.rows")
+                            .description("Число записей, возвращенных методом хранилища")
+                            .tags("storage", storage, "method", method)
+                            .publishPercentileHistogram()
+                            .register(registry));
+        }
+
+        private static Timer timer(MeterRegistry registry, String storage, String method, String outcome) {
+            return Timer.builder("filmorate.storage.calls")
+                    .description("Время выполнения методов хранилищ")
+                    .tags("storage", storage, "method", method, "outcome", outcome)
+                    .publishPercentileHistogram()
+                    .register(registry);
+        }
+    }
+}
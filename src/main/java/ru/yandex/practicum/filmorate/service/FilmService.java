@@ -1,37 +1,204 @@
 package ru.yandex.practicum.filmorate.service;
 
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.convert.DurationStyle;
+import org.springframework.dao.DataAccessException;
 import org.springframework.stereotype.Service;
+import ru.yandex.practicum.filmorate.exception.ConditionsNotMetException;
 import ru.yandex.practicum.filmorate.exception.NotFoundException;
+import ru.yandex.practicum.filmorate.model.CursorPage;
 import ru.yandex.practicum.filmorate.model.Film;
-import ru.yandex.practicum.filmorate.model.User;
+import ru.yandex.practicum.filmorate.model.FilmImportResult;
+import ru.yandex.practicum.filmorate.model.Genre;
+import ru.yandex.practicum.filmorate.model.ImportError;
+import ru.yandex.practicum.filmorate.storage.FilmSearchIndex;
 import ru.yandex.practicum.filmorate.storage.FilmStorage;
+import ru.yandex.practicum.filmorate.storage.GenreStorage;
+import ru.yandex.practicum.filmorate.storage.MpaRatingStorage;
+import ru.yandex.practicum.filmorate.storage.ReadModel;
 import ru.yandex.practicum.filmorate.storage.UserStorage;
 
+import java.time.Duration;
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Comparator;
+import java.util.EnumSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
 
 @Service
 @Slf4j
 public class FilmService {
 
+    private static final int MAX_PAGE_SIZE = 1000;
+    private static final int IMPORT_CHUNK_SIZE = 1000;
+    private static final int MAX_SEARCH_LIMIT = 100;
+    private static final int MAX_POPULAR_COUNT = 1000;
+
     private final FilmStorage filmStorage;
     private final UserStorage userStorage;
+    private final GenreStorage genreStorage;
+    private final MpaRatingStorage mpaRatingStorage;
+    private final Validator validator;
+    private final LikeWriteBehindBuffer likeBuffer;
+    private final ReadModel readModel;
+    private final Duration maxTrendingWindow;
 
     @Autowired
-    public FilmService(FilmStorage filmStorage, UserStorage userStorage) {
+    public FilmService(FilmStorage filmStorage, UserStorage userStorage, GenreStorage genreStorage,
+                       MpaRatingStorage mpaRatingStorage, Validator validator, LikeWriteBehindBuffer likeBuffer,
+                       ReadModel readModel,
+                       @Value("${filmorate.films.trending.max-window:7d}") Duration maxTrendingWindow) {
         this.filmStorage = filmStorage;
         this.userStorage = userStorage;
+        this.genreStorage = genreStorage;
+        this.mpaRatingStorage = mpaRatingStorage;
+        this.validator = validator;
+        this.likeBuffer = likeBuffer;
+        this.readModel = readModel;
+        this.maxTrendingWindow = maxTrendingWindow;
     }
 
     public Collection<Film> getAllFilms() {
-        return filmStorage.findAllFilms();
+        return readModel.findAllFilms().orElseGet(filmStorage::findAllFilms);
+    }
+
+    public CursorPage<Film> getFilmsPage(long after, int limit) {
+        if (limit < 1 || limit > MAX_PAGE_SIZE) {
+            throw new ConditionsNotMetException("Размер страницы должен быть от 1 до " + MAX_PAGE_SIZE);
+        }
+        return CursorPage.of(filmStorage.findFilmsAfter(after, limit + 1), limit, Film::getId);
+    }
+
+    public void forEachFilm(Consumer<Film> action) {
+        filmStorage.forEachFilm(action);
     }
 
     public Film createFilm(Film film) {
         return filmStorage.create(film);
     }
 
+    /**
+     * Элементы, которые не удалось разобрать (IllegalArgumentException из next()), попадают в ошибки,
+     * и импорт продолжается. Любая другая ошибка чтения прекращает импорт, но уже сохраненные
+     * фильмы остаются в результате.
+     */
+    public FilmImportResult importFilms(Iterator<Film> films) {
+        FilmImportResult result = new FilmImportResult();
+        List<Film> chunk = new ArrayList<>(IMPORT_CHUNK_SIZE);
+        List<Integer> chunkIndexes = new ArrayList<>(IMPORT_CHUNK_SIZE);
+
+        int index = 0;
+        while (true) {
+            Film film;
+            try {
+                if (!films.hasNext()) {
+                    break;
+                }
+                film = films.next();
+            } catch (IllegalArgumentException e) {
+                result.getErrors().add(new ImportError(index++, e.getMessage()));
+                continue;
+            } catch (RuntimeException e) {
+                log.warn("Импорт фильмов прерван на элементе {}", index, e);
+                result.getErrors().add(new ImportError(index, "Ошибка чтения данных, импорт прерван"));
+                break;
+            }
+            String error = validateForImport(film);
+            if (error != null) {
+                result.getErrors().add(new ImportError(index, error));
+            } else {
+                chunk.add(withDistinctGenres(film));
+                chunkIndexes.add(index);
+                if (chunk.size() == IMPORT_CHUNK_SIZE) {
+                    saveImportChunk(chunk, chunkIndexes, result);
+                }
+            }
+            index++;
+        }
+        saveImportChunk(chunk, chunkIndexes, result);
+        result.getErrors().sort(Comparator.comparingInt(ImportError::getIndex));
+
+        result.setReceived(index);
+        log.info("Импорт фильмов завершен: получено {}, создано {}, ошибок {}",
+                index, result.getCreatedIds().size(), result.getErrors().size());
+        return result;
+    }
+
+    private String validateForImport(Film film) {
+        if (film == null) {
+            return "Пустой элемент";
+        }
+        Set<ConstraintViolation<Film>> violations = validator.validate(film);
+        if (!violations.isEmpty()) {
+            ConstraintViolation<Film> violation = violations.iterator().next();
+            return violation.getPropertyPath() + ": " + violation.getMessage();
+        }
+        if (film.getReleaseDate() == null) {
+            return "releaseDate: Дата релиза должна быть указана";
+        }
+        if (film.getMpa() == null || mpaRatingStorage.getMpaRatingById(film.getMpa().getId()).isEmpty()) {
+            return "mpa: Рейтинг MPA не найден";
+        }
+        if (film.getGenres() != null) {
+            for (Genre genre : film.getGenres()) {
+                if (genre == null || genreStorage.getGenreById(genre.getId()).isEmpty()) {
+                    return "genres: Жанр с id " + (genre == null ? null : genre.getId()) + " не найден";
+                }
+            }
+        }
+        return null;
+    }
+
+    // {"id":1} и {"id":1,"name":"Комедия"} - разные элементы Set<Genre>, но одна строка в film_genres
+    private Film withDistinctGenres(Film film) {
+        if (film.getGenres() != null) {
+            Map<Long, Genre> distinct = new LinkedHashMap<>();
+            film.getGenres().forEach(genre -> distinct.putIfAbsent(genre.getId(), genre));
+            film.setGenres(new LinkedHashSet<>(distinct.values()));
+        }
+        return film;
+    }
+
+    private void saveImportChunk(List<Film> chunk, List<Integer> chunkIndexes, FilmImportResult result) {
+        if (!chunk.isEmpty()) {
+            saveImportRange(chunk, chunkIndexes, 0, chunk.size(), result);
+        }
+        chunk.clear();
+        chunkIndexes.clear();
+    }
+
+    /**
+     * Пакет сохраняется в одной транзакции; если она откатилась, пакет делится пополам,
+     * пока ошибка не будет сужена до конкретных фильмов.
+     */
+    private void saveImportRange(List<Film> chunk, List<Integer> chunkIndexes, int from, int to,
+                                 FilmImportResult result) {
+        try {
+            filmStorage.createFilms(chunk.subList(from, to))
+                    .forEach(film -> result.getCreatedIds().add(film.getId()));
+        } catch (DataAccessException e) {
+            if (to - from == 1) {
+                log.warn("Ошибка при сохранении фильма с индексом {}", chunkIndexes.get(from), e);
+                result.getErrors().add(new ImportError(chunkIndexes.get(from), "Ошибка при сохранении фильма"));
+                return;
+            }
+            int middle = (from + to) >>> 1;
+            saveImportRange(chunk, chunkIndexes, from, middle, result);
+            saveImportRange(chunk, chunkIndexes, middle, to, result);
+        }
+    }
+
     public Film updateFilm(Film film) {
         return filmStorage.updateFilm(film);
     }
@@ -40,41 +207,95 @@ public class FilmService {
         return filmStorage.getFilmById(id);
     }
 
+    /**
+     * Версия ответа с фильмом. В ответ попадают названия жанров и рейтинга MPA,
+     * поэтому она меняется и при изменении самого фильма, и при изменении справочников.
+     */
+    public String getFilmVersion(Long id) {
+        if (!filmStorage.existsById(id)) {
+            throw new NotFoundException("Фильм с ID " + id + " не найден.");
+        }
+        return filmStorage.getVersion(id) + "." + genreStorage.getVersion() + "." + mpaRatingStorage.getVersion();
+    }
+
     public void addLike(Long filmId, Long userId) {
         log.info("Запрос на добавление лайка: filmId={}, userId={}", filmId, userId);
-        Film film = getFilmById(filmId);
-        User user = userStorage.getUserById(userId);
+        checkFilmAndUserExist(filmId, userId);
 
-        if (film == null) {
-            throw new NotFoundException("Фильм с ID " + filmId + " не найден.");
+        if (likeBuffer.isEnabled()) {
+            likeBuffer.addLike(filmId, userId);
+        } else {
+            filmStorage.addLike(filmId, userId);
         }
-        if (user == null) {
-            throw new NotFoundException("Пользователь с ID " + userId + " не найден.");
-        }
-
-        filmStorage.addLike(filmId, userId);
         log.info("Пользователь {} поставил лайк фильму {}", userId, filmId);
     }
 
     public void removeLike(Long filmId, Long userId) {
         log.info("Запрос на удаление лайка: filmId={}, userId={}", filmId, userId);
 
-        Film film = getFilmById(filmId);
-        User user = userStorage.getUserById(userId);
+        checkFilmAndUserExist(filmId, userId);
 
-        if (film == null) {
+        if (likeBuffer.isEnabled()) {
+            likeBuffer.removeLike(filmId, userId);
+        } else {
+            filmStorage.removeLike(filmId, userId);
+        }
+        log.info("Пользователь {} удалил лайк у фильма {}", userId, filmId);
+    }
+
+    private void checkFilmAndUserExist(Long filmId, Long userId) {
+        if (!filmStorage.existsById(filmId)) {
             throw new NotFoundException("Фильм с ID " + filmId + " не найден.");
         }
-        if (user == null) {
+        if (!userStorage.existsById(userId)) {
             throw new NotFoundException("Пользователь с ID " + userId + " не найден.");
         }
+    }
 
-        filmStorage.removeLike(filmId, userId);
-        log.info("Пользователь {} удалил лайк у фильма {}", userId, filmId);
+    public Collection<Film> getPopularFilms(int count, Long genreId, Integer year) {
+        log.info("Запрос на получение {} популярных фильмов: genreId={}, year={}", count, genreId, year);
+        validatePopularCount(count);
+        return readModel.getPopularFilms(count, genreId, year).orElseGet(() -> filmStorage.getPopularFilms(count, genreId, year));
     }
 
-    public Collection<Film> getPopularFilms(int count) {
-        log.info("Запрос на получение {} популярных фильмов", count);
-        return filmStorage.getPopularFilms(count);
+    public List<Film> searchFilms(String query, List<String> by, int limit) {
+        log.info("Запрос на поиск фильмов: q={}, by={}, limit={}", query, by, limit);
+        if (query == null || query.isBlank()) {
+            throw new ConditionsNotMetException("Поисковый запрос не должен быть пустым");
+        }
+        if (limit < 1 || limit > MAX_SEARCH_LIMIT) {
+            throw new ConditionsNotMetException("Количество результатов должно быть от 1 до " + MAX_SEARCH_LIMIT);
+        }
+        Set<FilmSearchIndex.Field> fields = EnumSet.noneOf(FilmSearchIndex.Field.class);
+        for (String field : by) {
+            switch (field.trim().toLowerCase(Locale.ROOT)) {
+                case "title" -> fields.add(FilmSearchIndex.Field.TITLE);
+                case "description" -> fields.add(FilmSearchIndex.Field.DESCRIPTION);
+                default -> throw new ConditionsNotMetException("Неизвестное поле поиска: " + field);
+            }
+        }
+        return filmStorage.searchFilms(query, fields, limit);
+    }
+
+    public Collection<Film> getTrendingFilms(int count, String windowValue, Long genreId, Integer year) {
+        log.info("Запрос на получение {} популярных фильмов за {}: genreId={}, year={}",
+                count, windowValue, genreId, year);
+        validatePopularCount(count);
+        Duration window;
+        try {
+            window = DurationStyle.detectAndParse(windowValue);
+        } catch (IllegalArgumentException e) {
+            throw new ConditionsNotMetException("Некорректное окно: " + windowValue + ", ожидается например 24h или 7d");
+        }
+        if (window.toHours() < 1 || window.compareTo(maxTrendingWindow) > 0) {
+            throw new ConditionsNotMetException("Окно должно быть от 1 часа до " + maxTrendingWindow.toHours() + " часов");
+        }
+        return filmStorage.getTrendingFilms(count, window, genreId, year);
+    }
+
+    private void validatePopularCount(int count) {
+        if (count < 1 || count > MAX_POPULAR_COUNT) {
+            throw new ConditionsNotMetException("Количество фильмов должно быть от 1 до " + MAX_POPULAR_COUNT);
+        }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,167 @@
+package ru.yandex.practicum.filmorate.service;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+import ru.yandex.practicum.filmorate.exception.ConditionsNotMetException;
+import ru.yandex.practicum.filmorate.model.FriendSuggestion;
+import ru.yandex.practicum.filmorate.model.User;
+import ru.yandex.practicum.filmorate.storage.FriendshipStorage;
+import ru.yandex.practicum.filmorate.storage.LongArraySets;
+import ru.yandex.practicum.filmorate.storage.LongCounter;
+import ru.yandex.practicum.filmorate.storage.StorageChangeEvent;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Рекомендации «возможно, вы знакомы»: друзья друзей, ранжированные по числу общих друзей.
+ * Для пользователей с большим числом друзей результат держится в кэше и сбрасывается
+ * при изменении дружбы самого пользователя или любого из его друзей, а также при удалении пользователя.
+ */
+@Service
+@Slf4j
+public class FriendSuggestionService {
+
+    private static final int MAX_LIMIT = 100;
+
+    // Худший кандидат в голове кучи: меньше общих друзей, при равенстве — больший id
+    private static final Comparator<Candidate> WORST_FIRST = Comparator.comparingInt(Candidate::mutualFriends)
+            .thenComparing(Comparator.comparingLong(Candidate::userId).reversed());
+
+    private final FriendshipStorage friendshipStorage;
+    private final UserService userService;
+    private final int precomputeThreshold;
+    private final ForkJoinPool pool;
+
+    private final ConcurrentHashMap<Long, CachedSuggestions> cache = new ConcurrentHashMap<>();
+    // Растет при каждом изменении дружбы, чтобы не положить в кэш результат, посчитанный до изменения
+    private final AtomicLong friendshipVersion = new AtomicLong();
+
+    @Autowired
+    public FriendSuggestionService(FriendshipStorage friendshipStorage, UserService userService,
+                                   @Value("${filmorate.friends.suggestions.precompute-threshold:1000}")
+                                   int precomputeThreshold,
+                                   @Value("${filmorate.friends.suggestions.parallelism:0}") int parallelism) {
+        this.friendshipStorage = friendshipStorage;
+        this.userService = userService;
+        this.precomputeThreshold = precomputeThreshold;
+        // Подсчет чисто вычислительный, поэтому пул остается на платформенных потоках и в режиме виртуальных
+        this.pool = new ForkJoinPool(parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors());
+    }
+
+    public List<FriendSuggestion> getSuggestions(Long userId, int limit) {
+        log.info("Запрос на рекомендации друзей: userId={}, limit={}", userId, limit);
+
+        if (limit < 1 || limit > MAX_LIMIT) {
+            throw new ConditionsNotMetException("Количество рекомендаций должно быть от 1 до " + MAX_LIMIT);
+        }
+        userService.checkUserExists(userId);
+
+        List<Candidate> candidates;
+        CachedSuggestions cached = cache.get(userId);
+        if (cached != null) {
+            candidates = cached.candidates();
+        } else {
+            long version = friendshipVersion.get();
+            long[] friends = friendshipStorage.getFriendIdsOf(List.of(userId))
+                    .getOrDefault(userId, LongArraySets.EMPTY);
+            if (friends.length >= precomputeThreshold) {
+                candidates = computeTop(userId, friends, MAX_LIMIT);
+                CachedSuggestions computed = new CachedSuggestions(friends, candidates);
+                cache.put(userId, computed);
+                if (friendshipVersion.get() != version) {
+                    cache.remove(userId, computed);
+                }
+            } else {
+                candidates = computeTop(userId, friends, limit);
+            }
+        }
+
+        List<Candidate> top = candidates.subList(0, Math.min(limit, candidates.size()));
+        List<Long> ids = new ArrayList<>(top.size());
+        top.forEach(candidate -> ids.add(candidate.userId()));
+        Map<Long, User> usersById = new HashMap<>(ids.size());
+        userService.getUsersByIds(ids).forEach(user -> usersById.put(user.getId(), user));
+
+        List<FriendSuggestion> suggestions = new ArrayList<>(top.size());
+        for (Candidate candidate : top) {
+            User user = usersById.get(candidate.userId());
+            if (user != null) {
+                suggestions.add(new FriendSuggestion(user, candidate.mutualFriends()));
+            }
+        }
+        return suggestions;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        pool.shutdown();
+    }
+
+    /**
+     * Сбрасывает закэшированные рекомендации, которые зависят от списка друзей {@code userId}:
+     * его собственные и тех пользователей, у кого он в друзьях.
+     */
+    public void onFriendsChanged(Long userId) {
+        friendshipVersion.incrementAndGet();
+        cache.remove(userId);
+        cache.entrySet().removeIf(entry -> LongArraySets.contains(entry.getValue().friends(), userId));
+    }
+
+    /**
+     * Удаленный пользователь мог быть и другом, и кандидатом в любых закэшированных рекомендациях,
+     * а обратных ссылок кэш не хранит; удаления редки, поэтому кэш сбрасывается целиком.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onStorageChange(StorageChangeEvent event) {
+        if (event.entity() == StorageChangeEvent.Entity.USER && !userService.userExists(event.id())) {
+            friendshipVersion.incrementAndGet();
+            cache.clear();
+        }
+    }
+
+    private List<Candidate> computeTop(long userId, long[] friends, int limit) {
+        if (friends.length == 0) {
+            return List.of();
+        }
+
+        // Число общих друзей - сколько раз кандидат встретился в списках друзей друзей;
+        // списки разных друзей сливаются параллельно
+        Map<Long, long[]> neighbors = friendshipStorage.getFriendIdsOf(LongArraySets.toList(friends));
+        LongCounter mutualFriends = LongCounter.countAll(new ArrayList<>(neighbors.values()), pool);
+
+        PriorityQueue<Candidate> heap = new PriorityQueue<>(limit + 1, WORST_FIRST);
+        mutualFriends.forEach((candidateId, count) -> {
+            if (candidateId != userId && !LongArraySets.contains(friends, candidateId)) {
+                Candidate candidate = new Candidate(candidateId, count);
+                if (heap.size() < limit) {
+                    heap.add(candidate);
+                } else if (WORST_FIRST.compare(candidate, heap.peek()) > 0) {
+                    heap.poll();
+                    heap.add(candidate);
+                }
+            }
+        });
+
+        List<Candidate> top = new ArrayList<>(heap);
+        top.sort(WORST_FIRST.reversed());
+        return List.copyOf(top);
+    }
+
+    private record Candidate(long userId, int mutualFriends) {
+    }
+
+    private record CachedSuggestions(long[] friends, List<Candidate> candidates) {
+    }
+}
@@ -5,10 +5,11 @@ import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 import ru.yandex.practicum.filmorate.model.User;
 import ru.yandex.practicum.filmorate.storage.FriendshipStorage;
+import ru.yandex.practicum.filmorate.storage.ReadModel;
 
 import java.util.Collection;
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.Optional;
 
 @Service
 @Slf4j
@@ -17,14 +18,17 @@ public class FriendshipService {
 
     private final FriendshipStorage friendshipStorage;
     private final UserService userService;
+    private final FriendSuggestionService friendSuggestionService;
+    private final ReadModel readModel;
 
     public void addFriend(Long userId, Long friendId) {
         log.info("Запрос на добавление в друзья: userId={}, friendId={}", userId, friendId);
 
-        userService.getUserById(userId);
-        userService.getUserById(friendId);
+        userService.checkUserExists(userId);
+        userService.checkUserExists(friendId);
 
         friendshipStorage.addFriend(userId, friendId);
+        friendSuggestionService.onFriendsChanged(userId);
 
         log.info("Пользователи {} и {} теперь друзья", userId, friendId);
     }
@@ -32,10 +36,11 @@ public class FriendshipService {
     public void removeFriend(Long userId, Long friendId) {
         log.info("Запрос на удаление из друзей: userId={}, friendId={}", userId, friendId);
 
-        userService.getUserById(userId);
-        userService.getUserById(friendId);
+        userService.checkUserExists(userId);
+        userService.checkUserExists(friendId);
 
         friendshipStorage.removeFriend(userId, friendId);
+        friendSuggestionService.onFriendsChanged(userId);
 
         log.info("Пользователи {} и {} больше не друзья", userId, friendId);
     }
@@ -43,25 +48,25 @@ public class FriendshipService {
     public Collection<User> getCommonFriends(Long userId, Long otherUserId) {
         log.info("Запрос на получение общих друзей: userId={}, otherUserId={}", userId, otherUserId);
 
-        userService.getUserById(userId);
-        userService.getUserById(otherUserId);
+        userService.checkUserExists(userId);
+        userService.checkUserExists(otherUserId);
 
         List<Long> commonFriendIds = friendshipStorage.getCommonFriendIds(userId, otherUserId);
 
-        return commonFriendIds.stream()
-                .map(userService::getUserById)
-                .collect(Collectors.toList());
+        return userService.getUsersByIds(commonFriendIds);
     }
 
     public Collection<User> getFriends(Long userId) {
         log.info("Запрос на получение друзей пользователя с ID: {}", userId);
 
-        userService.getUserById(userId);
+        userService.checkUserExists(userId);
 
+        Optional<List<User>> cached = readModel.getFriends(userId);
+        if (cached.isPresent()) {
+            return cached.get();
+        }
         List<Long> friendIds = friendshipStorage.getFriendIds(userId);
 
-        return friendIds.stream()
-                .map(userService::getUserById)
-                .collect(Collectors.toList());
+        return userService.getUsersByIds(friendIds);
     }
 }
@@ -10,4 +10,6 @@ public interface GenreService {
     Genre getGenreById(Long id);
 
     Collection<Genre> getAllGenres();
+
+    long getVersion();
 }
\ No newline at end of file
@@ -28,4 +28,9 @@ public class GenreServiceImpl implements GenreService {
     public Collection<Genre> getAllGenres() {
         return genreStorage.getAllGenres();
     }
+
+    @Override
+    public long getVersion() {
+        return genreStorage.getVersion();
+    }
 }
\ No newline at end of file
@@ -0,0 +1,195 @@
+package ru.yandex.practicum.filmorate.service;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Component;
+import ru.yandex.practicum.filmorate.storage.FilmStorage;
+import ru.yandex.practicum.filmorate.storage.LikeChange;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Отложенная запись лайков. Запросы подтверждаются сразу после постановки в буфер,
+ * а фоновый поток раз в {@code flush-interval} сворачивает изменения по паре фильм/пользователь
+ * (побеждает последнее) и записывает их пакетом. Изменения, которые не удалось записать из-за
+ * недоступности БД, возвращаются в буфер и повторяются при следующем сбросе; запись идемпотентна.
+ * Выключено по умолчанию.
+ */
+@Component
+@Slf4j
+public class LikeWriteBehindBuffer {
+
+    private final FilmStorage filmStorage;
+    private final boolean enabled;
+    private final Duration flushInterval;
+    private final int capacity;
+    private final boolean virtualThreads;
+
+    private final Object pendingLock = new Object();
+    private final ReentrantLock flushLock = new ReentrantLock();
+    private Map<LikeKey, LikeChange> pending = new LinkedHashMap<>();
+    private ScheduledExecutorService flusher;
+
+    public LikeWriteBehindBuffer(FilmStorage filmStorage,
+                                 @Value("${filmorate.likes.write-behind.enabled:false}") boolean enabled,
+                                 @Value("${filmorate.likes.write-behind.flush-interval:200ms}") Duration flushInterval,
+                                 @Value("${filmorate.likes.write-behind.capacity:100000}") int capacity,
+                                 @Value("${spring.threads.virtual.enabled:false}") boolean virtualThreads) {
+        this.filmStorage = filmStorage;
+        this.enabled = enabled;
+        this.flushInterval = flushInterval;
+        this.capacity = capacity;
+        this.virtualThreads = virtualThreads;
+    }
+
+    @PostConstruct
+    public void start() {
+        if (!enabled) {
+            return;
+        }
+        flusher = Executors.newSingleThreadScheduledExecutor(virtualThreads
+                ? Thread.ofVirtual().name("like-write-behind").factory()
+                : runnable -> {
+                    Thread thread = new Thread(runnable, "like-write-behind");
+                    thread.setDaemon(true);
+                    return thread;
+                });
+        flusher.scheduleWithFixedDelay(this::scheduledFlush, flushInterval.toMillis(), flushInterval.toMillis(),
+                TimeUnit.MILLISECONDS);
+        log.info("Отложенная запись лайков включена: интервал {}, емкость {}", flushInterval, capacity);
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        if (flusher == null) {
+            return;
+        }
+        flusher.shutdown();
+        flusher.awaitTermination(flushInterval.toMillis() * 10, TimeUnit.MILLISECONDS);
+        try {
+            flush();
+            log.info("Буфер лайков сброшен при остановке");
+        } catch (RuntimeException e) {
+            log.error("Не удалось сбросить буфер лайков при остановке, изменений потеряно: {}", pendingSize(), e);
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void addLike(Long filmId, Long userId) {
+        enqueue(new LikeChange(filmId, userId, true, Instant.now()));
+    }
+
+    public void removeLike(Long filmId, Long userId) {
+        enqueue(new LikeChange(filmId, userId, false, Instant.now()));
+    }
+
+    public void flush() {
+        flushLock.lock();
+        try {
+            List<LikeChange> changes;
+            synchronized (pendingLock) {
+                if (pending.isEmpty()) {
+                    return;
+                }
+                changes = new ArrayList<>(pending.values());
+                pending = new LinkedHashMap<>();
+            }
+            try {
+                write(changes);
+            } catch (RuntimeException e) {
+                requeue(changes);
+                throw e;
+            }
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    // Исключение из задачи scheduleWithFixedDelay навсегда отменяет ее, поэтому ошибки здесь только логируются
+    private void scheduledFlush() {
+        try {
+            flush();
+        } catch (RuntimeException e) {
+            log.warn("Сброс буфера лайков не удался, повтор через {}", flushInterval, e);
+        }
+    }
+
+    // Более новые изменения той же пары, пришедшие во время записи, важнее возвращаемых
+    private void requeue(List<LikeChange> failed) {
+        synchronized (pendingLock) {
+            Map<LikeKey, LikeChange> merged = new LinkedHashMap<>();
+            failed.forEach(change -> merged.put(new LikeKey(change.filmId(), change.userId()), change));
+            merged.putAll(pending);
+            pending = merged;
+        }
+    }
+
+    private int pendingSize() {
+        synchronized (pendingLock) {
+            return pending.size();
+        }
+    }
+
+    private void enqueue(LikeChange change) {
+        LikeKey key = new LikeKey(change.filmId(), change.userId());
+        while (true) {
+            synchronized (pendingLock) {
+                if (pending.size() < capacity || pending.containsKey(key)) {
+                    pending.put(key, change);
+                    return;
+                }
+            }
+            // Буфер заполнен: вызывающий поток сам сбрасывает его, притормаживая входящий поток лайков
+            flush();
+        }
+    }
+
+    /**
+     * Ошибка доступа к БД пробрасывается, и весь пакет возвращается в буфер. Нарушение ограничений
+     * (фильм или пользователь уже удалены) и прочие ошибки отдельной строки повтором не исправить -
+     * такие изменения теряются, остальные записываются по одному.
+     */
+    private void write(List<LikeChange> changes) {
+        try {
+            filmStorage.applyLikeChanges(changes);
+            return;
+        } catch (DataIntegrityViolationException e) {
+            log.warn("Не удалось записать пакет лайков целиком, записываем по одному", e);
+        } catch (DataAccessException e) {
+            throw e;
+        } catch (RuntimeException e) {
+            log.warn("Не удалось записать пакет лайков целиком, записываем по одному", e);
+        }
+
+        for (LikeChange change : changes) {
+            try {
+                filmStorage.applyLikeChanges(List.of(change));
+            } catch (DataIntegrityViolationException rowException) {
+                log.error("Изменение лайка потеряно: {}", change, rowException);
+            } catch (DataAccessException rowException) {
+                throw rowException;
+            } catch (RuntimeException rowException) {
+                log.error("Изменение лайка потеряно: {}", change, rowException);
+            }
+        }
+    }
+
+    private record LikeKey(long filmId, long userId) {
+    }
+}
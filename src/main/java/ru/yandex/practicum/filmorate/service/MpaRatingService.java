@@ -8,4 +8,6 @@ public interface MpaRatingService {
     MpaRating getMpaRatingById(Long id);
 
     Collection<MpaRating> getAllMpaRatings();
+
+    long getVersion();
 }
\ No newline at end of file
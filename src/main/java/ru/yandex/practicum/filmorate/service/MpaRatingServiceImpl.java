@@ -24,4 +24,9 @@ public class MpaRatingServiceImpl implements MpaRatingService {
     public Collection<MpaRating> getAllMpaRatings() {
         return mpaRatingStorage.getAllMpaRatings();
     }
+
+    @Override
+    public long getVersion() {
+        return mpaRatingStorage.getVersion();
+    }
 }
\ No newline at end of file
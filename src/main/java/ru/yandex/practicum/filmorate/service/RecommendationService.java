@@ -0,0 +1,119 @@
+package ru.yandex.practicum.filmorate.service;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import ru.yandex.practicum.filmorate.exception.ConditionsNotMetException;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.storage.FilmStorage;
+import ru.yandex.practicum.filmorate.storage.LikeIndex;
+import ru.yandex.practicum.filmorate.storage.LongArraySets;
+import ru.yandex.practicum.filmorate.storage.LongCounter;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Рекомендации фильмов по совместным лайкам: находятся пользователи с наиболее похожими лайками
+ * (коэффициент Жаккара), и их фильмы, которых пользователь еще не лайкал, ранжируются по сумме
+ * похожести. Подсчет идет по {@link LikeIndex}: общие лайки по фильмам пользователя считаются
+ * параллельно в отдельном fork-join пуле, см. {@link LongCounter#countAll}.
+ */
+@Service
+@Slf4j
+public class RecommendationService {
+
+    private static final int MAX_LIMIT = 100;
+    private static final int MAX_NEIGHBORS = 50;
+
+    private static final Comparator<Scored> WORST_FIRST = Comparator.comparingDouble(Scored::score)
+            .thenComparing(Comparator.comparingLong(Scored::id).reversed());
+
+    private final LikeIndex likeIndex;
+    private final FilmStorage filmStorage;
+    private final UserService userService;
+    private final ForkJoinPool pool;
+
+    @Autowired
+    public RecommendationService(LikeIndex likeIndex, FilmStorage filmStorage, UserService userService,
+                                 @Value("${filmorate.recommendations.parallelism:0}") int parallelism) {
+        this.likeIndex = likeIndex;
+        this.filmStorage = filmStorage;
+        this.userService = userService;
+        // Подсчет чисто вычислительный, поэтому пул остается на платформенных потоках и в режиме виртуальных
+        this.pool = new ForkJoinPool(parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors());
+    }
+
+    public List<Film> getRecommendations(Long userId, int limit) {
+        log.info("Запрос на рекомендации фильмов: userId={}, limit={}", userId, limit);
+
+        if (limit < 1 || limit > MAX_LIMIT) {
+            throw new ConditionsNotMetException("Количество рекомендаций должно быть от 1 до " + MAX_LIMIT);
+        }
+        userService.checkUserExists(userId);
+
+        long[] likedFilms = likeIndex.getFilmIds(userId);
+        if (likedFilms.length == 0) {
+            return List.of();
+        }
+
+        return filmStorage.getFilmsByIds(recommend(userId, likedFilms, limit));
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        pool.shutdown();
+    }
+
+    private List<Long> recommend(long userId, long[] likedFilms, int limit) {
+        // Число общих лайков с каждым, кто лайкал те же фильмы
+        List<long[]> coLikers = new ArrayList<>(likedFilms.length);
+        for (long filmId : likedFilms) {
+            coLikers.add(likeIndex.getUserIds(filmId));
+        }
+        LongCounter commonLikes = LongCounter.countAll(coLikers, pool);
+
+        PriorityQueue<Scored> neighbors = new PriorityQueue<>(MAX_NEIGHBORS + 1, WORST_FIRST);
+        commonLikes.forEach((neighborId, common) -> {
+            if (neighborId != userId) {
+                int union = likedFilms.length + likeIndex.getFilmIds(neighborId).length - common;
+                offer(neighbors, new Scored(neighborId, (double) common / union), MAX_NEIGHBORS);
+            }
+        });
+
+        Map<Long, Double> scores = new HashMap<>();
+        for (Scored neighbor : neighbors) {
+            for (long filmId : likeIndex.getFilmIds(neighbor.id())) {
+                if (!LongArraySets.contains(likedFilms, filmId)) {
+                    scores.merge(filmId, neighbor.score(), Double::sum);
+                }
+            }
+        }
+
+        PriorityQueue<Scored> films = new PriorityQueue<>(limit + 1, WORST_FIRST);
+        scores.forEach((filmId, score) -> offer(films, new Scored(filmId, score), limit));
+
+        List<Scored> top = new ArrayList<>(films);
+        top.sort(WORST_FIRST.reversed());
+        return top.stream().map(Scored::id).toList();
+    }
+
+    private static void offer(PriorityQueue<Scored> heap, Scored candidate, int capacity) {
+        if (heap.size() < capacity) {
+            heap.add(candidate);
+        } else if (WORST_FIRST.compare(candidate, heap.peek()) > 0) {
+            heap.poll();
+            heap.add(candidate);
+        }
+    }
+
+    private record Scored(long id, double score) {
+    }
+}
@@ -3,16 +3,22 @@ package ru.yandex.practicum.filmorate.service;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
+import ru.yandex.practicum.filmorate.exception.ConditionsNotMetException;
 import ru.yandex.practicum.filmorate.exception.NotFoundException;
+import ru.yandex.practicum.filmorate.model.CursorPage;
 import ru.yandex.practicum.filmorate.model.User;
 import ru.yandex.practicum.filmorate.storage.UserStorage;
 
 import java.util.Collection;
+import java.util.List;
+import java.util.function.Consumer;
 
 @Service
 @Slf4j
 public class UserService {
 
+    private static final int MAX_PAGE_SIZE = 1000;
+
     private final UserStorage userStorage;
 
     @Autowired
@@ -24,6 +30,17 @@ public class UserService {
         return userStorage.findAllUsers();
     }
 
+    public CursorPage<User> getUsersPage(long after, int limit) {
+        if (limit < 1 || limit > MAX_PAGE_SIZE) {
+            throw new ConditionsNotMetException("Размер страницы должен быть от 1 до " + MAX_PAGE_SIZE);
+        }
+        return CursorPage.of(userStorage.findUsersAfter(after, limit + 1), limit, User::getId);
+    }
+
+    public void forEachUser(Consumer<User> action) {
+        userStorage.forEachUser(action);
+    }
+
     public User createUser(User user) {
         return userStorage.createUser(user);
     }
@@ -39,4 +56,18 @@ public class UserService {
         }
         return user;
     }
+
+    public boolean userExists(Long id) {
+        return userStorage.existsById(id);
+    }
+
+    public void checkUserExists(Long id) {
+        if (!userExists(id)) {
+            throw new NotFoundException("Пользователь с ID " + id + " не найден");
+        }
+    }
+
+    public List<User> getUsersByIds(List<Long> ids) {
+        return userStorage.getUsersByIds(ids);
+    }
 }
\ No newline at end of file
@@ -0,0 +1,38 @@
+package ru.yandex.practicum.filmorate.storage;
+
+import java.util.Arrays;
+import java.util.Map;
+
+/**
+ * Собирает пары (ключ, значение), упорядоченные по ключу и значению, в отсортированные массивы
+ * значений по ключам за один проход. Например, друзей по пользователям или лайкнувших по фильмам.
+ */
+final class AdjacencyCollector {
+
+    private final Map<Long, long[]> target;
+    private long[] buffer = new long[16];
+    private int size;
+    private long currentKey = -1;
+
+    AdjacencyCollector(Map<Long, long[]> target) {
+        this.target = target;
+    }
+
+    void accept(long key, long value) {
+        if (key != currentKey) {
+            finish();
+            currentKey = key;
+        }
+        if (size == buffer.length) {
+            buffer = Arrays.copyOf(buffer, size * 2);
+        }
+        buffer[size++] = value;
+    }
+
+    void finish() {
+        if (size > 0) {
+            target.put(currentKey, Arrays.copyOf(buffer, size));
+            size = 0;
+        }
+    }
+}
@@ -0,0 +1,112 @@
+package ru.yandex.practicum.filmorate.storage;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.annotation.Primary;
+import org.springframework.stereotype.Component;
+import ru.yandex.practicum.filmorate.model.Genre;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Справочник жанров в памяти поверх {@link GenreDbStorage}. Загружается целиком при старте
+ * и после {@link #invalidate()}, до этого все обращения обслуживаются без запросов к БД.
+ */
+@Component
+@Primary
+@RequiredArgsConstructor
+@Slf4j
+public class CachedGenreStorage implements GenreStorage {
+
+    private final GenreDbStorage genreDbStorage;
+    private final MeterRegistry meterRegistry;
+
+    // Не synchronized: загрузка идет в БД, а блокировка монитора закрепила бы виртуальный поток за несущим
+    private final ReentrantLock loadLock = new ReentrantLock();
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final AtomicLong version = new AtomicLong();
+    private volatile Map<Long, Genre> genresById;
+
+    @PostConstruct
+    public void preload() {
+        // Те же имена, что у метрик Caffeine для кэша фильмов
+        FunctionCounter.builder("cache.gets", hits, LongAdder::sum)
+                .tags("cache", "genres", "result", "hit")
+                .register(meterRegistry);
+        FunctionCounter.builder("cache.gets", misses, LongAdder::sum)
+                .tags("cache", "genres", "result", "miss")
+                .register(meterRegistry);
+        getGenresById();
+    }
+
+    @Override
+    public Optional<Genre> getGenreById(Long id) {
+        Genre genre = getGenresById().get(id);
+        if (genre == null) {
+            misses.increment();
+            return Optional.empty();
+        }
+        hits.increment();
+        return Optional.of(genre);
+    }
+
+    @Override
+    public Collection<Genre> getAllGenres() {
+        hits.increment();
+        return getGenresById().values();
+    }
+
+    /**
+     * Под той же блокировкой, что и загрузка: иначе загрузка, начатая до сброса, записала бы старые
+     * данные обратно уже после смены версии, и по новой версии отдавались бы старые названия.
+     */
+    public void invalidate() {
+        loadLock.lock();
+        try {
+            genresById = null;
+            version.incrementAndGet();
+        } finally {
+            loadLock.unlock();
+        }
+        log.info("Кэш жанров сброшен");
+    }
+
+    @Override
+    public long getVersion() {
+        return version.get();
+    }
+
+    private Map<Long, Genre> getGenresById() {
+        Map<Long, Genre> snapshot = genresById;
+        if (snapshot == null) {
+            loadLock.lock();
+            try {
+                snapshot = genresById;
+                if (snapshot == null) {
+                    Map<Long, Genre> loaded = new LinkedHashMap<>();
+                    genreDbStorage.getAllGenres().stream()
+                            .sorted(Comparator.comparing(Genre::getId))
+                            .forEach(genre -> loaded.put(genre.getId(), genre));
+                    snapshot = Collections.unmodifiableMap(loaded);
+                    genresById = snapshot;
+                    log.info("Кэш жанров загружен, записей: {}", snapshot.size());
+                }
+            } finally {
+                loadLock.unlock();
+            }
+        }
+        return snapshot;
+    }
+}
@@ -0,0 +1,111 @@
+package ru.yandex.practicum.filmorate.storage;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.annotation.Primary;
+import org.springframework.stereotype.Component;
+import ru.yandex.practicum.filmorate.model.MpaRating;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Справочник рейтингов MPA в памяти поверх {@link MpaRatingDbStorage}. Загружается целиком при старте
+ * и после {@link #invalidate()}, до этого все обращения обслуживаются без запросов к БД.
+ */
+@Component
+@Primary
+@RequiredArgsConstructor
+@Slf4j
+public class CachedMpaRatingStorage implements MpaRatingStorage {
+
+    private final MpaRatingDbStorage mpaRatingDbStorage;
+    private final MeterRegistry meterRegistry;
+
+    private final ReentrantLock loadLock = new ReentrantLock();
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final AtomicLong version = new AtomicLong();
+    private volatile Map<Long, MpaRating> mpaRatingsById;
+
+    @PostConstruct
+    public void preload() {
+        // Те же имена, что у метрик Caffeine для кэша фильмов
+        FunctionCounter.builder("cache.gets", hits, LongAdder::sum)
+                .tags("cache", "mpa", "result", "hit")
+                .register(meterRegistry);
+        FunctionCounter.builder("cache.gets", misses, LongAdder::sum)
+                .tags("cache", "mpa", "result", "miss")
+                .register(meterRegistry);
+        getMpaRatingsById();
+    }
+
+    @Override
+    public Optional<MpaRating> getMpaRatingById(Long id) {
+        MpaRating mpaRating = getMpaRatingsById().get(id);
+        if (mpaRating == null) {
+            misses.increment();
+            return Optional.empty();
+        }
+        hits.increment();
+        return Optional.of(mpaRating);
+    }
+
+    @Override
+    public Collection<MpaRating> getAllMpaRatings() {
+        hits.increment();
+        return getMpaRatingsById().values();
+    }
+
+    /**
+     * Под той же блокировкой, что и загрузка: иначе загрузка, начатая до сброса, записала бы старые
+     * данные обратно уже после смены версии, и по новой версии отдавались бы старые названия.
+     */
+    public void invalidate() {
+        loadLock.lock();
+        try {
+            mpaRatingsById = null;
+            version.incrementAndGet();
+        } finally {
+            loadLock.unlock();
+        }
+        log.info("Кэш рейтингов MPA сброшен");
+    }
+
+    @Override
+    public long getVersion() {
+        return version.get();
+    }
+
+    private Map<Long, MpaRating> getMpaRatingsById() {
+        Map<Long, MpaRating> snapshot = mpaRatingsById;
+        if (snapshot == null) {
+            loadLock.lock();
+            try {
+                snapshot = mpaRatingsById;
+                if (snapshot == null) {
+                    Map<Long, MpaRating> loaded = new LinkedHashMap<>();
+                    mpaRatingDbStorage.getAllMpaRatings().stream()
+                            .sorted(Comparator.comparing(MpaRating::getId))
+                            .forEach(mpaRating -> loaded.put(mpaRating.getId(), mpaRating));
+                    snapshot = Collections.unmodifiableMap(loaded);
+                    mpaRatingsById = snapshot;
+                    log.info("Кэш рейтингов MPA загружен, записей: {}", snapshot.size());
+                }
+            } finally {
+                loadLock.unlock();
+            }
+        }
+        return snapshot;
+    }
+}
@@ -0,0 +1,136 @@
+package ru.yandex.practicum.filmorate.storage;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.time.Duration;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Ограничивает число одновременно занятых соединений с БД. Запрос ждет свободного разрешения
+ * не дольше {@code acquire-timeout}, а если ожидающих уже {@code max-waiting}, сразу получает отказ.
+ * Без этого на виртуальных потоках тысячи запросов встают в очередь пула соединений
+ * и висят там до таймаута. Отказ превращается в ответ 503.
+ */
+@Component
+@Slf4j
+public class ConnectionLimiter implements BeanPostProcessor {
+
+    private final int maxConcurrency;
+    private final int maxWaiting;
+    private final Duration acquireTimeout;
+
+    public ConnectionLimiter(
+            @Value("${filmorate.db.max-concurrency:${spring.datasource.hikari.maximum-pool-size:10}}")
+            int maxConcurrency,
+            @Value("${filmorate.db.max-waiting:1000}") int maxWaiting,
+            @Value("${filmorate.db.acquire-timeout:2s}") Duration acquireTimeout) {
+        this.maxConcurrency = maxConcurrency;
+        this.maxWaiting = maxWaiting;
+        this.acquireTimeout = acquireTimeout;
+    }
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) {
+        if (maxConcurrency <= 0 || !(bean instanceof DataSource dataSource) || bean instanceof LimitedDataSource) {
+            return bean;
+        }
+        log.info("Доступ к БД ограничен: {} соединений, ожидающих не больше {}, таймаут {}",
+                maxConcurrency, maxWaiting, acquireTimeout);
+        return new LimitedDataSource(dataSource, new Semaphore(maxConcurrency, true), maxWaiting, acquireTimeout);
+    }
+
+    private static final class LimitedDataSource extends DelegatingDataSource {
+
+        private final Semaphore permits;
+        private final int maxWaiting;
+        private final long acquireTimeoutNanos;
+
+        LimitedDataSource(DataSource target, Semaphore permits, int maxWaiting, Duration acquireTimeout) {
+            super(target);
+            this.permits = permits;
+            this.maxWaiting = maxWaiting;
+            this.acquireTimeoutNanos = acquireTimeout.toNanos();
+        }
+
+        @Override
+        public Connection getConnection() throws SQLException {
+            acquire();
+            return wrap(() -> obtainTargetDataSource().getConnection());
+        }
+
+        @Override
+        public Connection getConnection(String username, String password) throws SQLException {
+            acquire();
+            return wrap(() -> obtainTargetDataSource().getConnection(username, password));
+        }
+
+        private void acquire() throws SQLException {
+            if (permits.getQueueLength() >= maxWaiting) {
+                throw new SQLTransientConnectionException("Слишком много запросов ожидают соединения с БД");
+            }
+            try {
+                if (!permits.tryAcquire(acquireTimeoutNanos, TimeUnit.NANOSECONDS)) {
+                    throw new SQLTransientConnectionException("Не дождались свободного соединения с БД");
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new SQLTransientConnectionException("Ожидание соединения с БД прервано", e);
+            }
+        }
+
+        /**
+         * Разрешение возвращается при закрытии соединения, а если получить его не удалось — сразу.
+         */
+        private Connection wrap(ConnectionSupplier supplier) throws SQLException {
+            Connection connection;
+            try {
+                connection = supplier.get();
+            } catch (SQLException | RuntimeException e) {
+                permits.release();
+                throw e;
+            }
+            AtomicBoolean released = new AtomicBoolean();
+            return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(),
+                    new Class<?>[]{Connection.class}, (proxy, method, args) -> {
+                        switch (method.getName()) {
+                            case "equals":
+                                return proxy == args[0];
+                            case "hashCode":
+                                return System.identityHashCode(proxy);
+                            default:
+                                break;
+                        }
+                        if (method.getName().equals("close") && released.compareAndSet(false, true)) {
+                            try {
+                                connection.close();
+                            } finally {
+                                permits.release();
+                            }
+                            return null;
+                        }
+                        try {
+                            return method.invoke(connection, args);
+                        } catch (InvocationTargetException e) {
+                            throw e.getTargetException();
+                        }
+                    });
+        }
+    }
+
+    @FunctionalInterface
+    private interface ConnectionSupplier {
+        Connection get() throws SQLException;
+    }
+}
@@ -0,0 +1,34 @@
+package ru.yandex.practicum.filmorate.storage;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+
+/**
+ * {@code /actuator/dictionaries}: версии справочников жанров и MPA, POST сбрасывает оба кэша.
+ * Нужен после правки таблиц genres и motion_picture_association в БД в обход приложения.
+ */
+@Component
+@Endpoint(id = "dictionaries")
+@RequiredArgsConstructor
+public class DictionaryCacheEndpoint {
+
+    private final CachedGenreStorage genreStorage;
+    private final CachedMpaRatingStorage mpaRatingStorage;
+
+    @ReadOperation
+    public Map<String, Long> versions() {
+        return Map.of("genres", genreStorage.getVersion(), "mpa", mpaRatingStorage.getVersion());
+    }
+
+    @WriteOperation
+    public Map<String, Long> invalidate() {
+        genreStorage.invalidate();
+        mpaRatingStorage.invalidate();
+        return versions();
+    }
+}
@@ -0,0 +1,119 @@
+package ru.yandex.practicum.filmorate.storage;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+import ru.yandex.practicum.filmorate.model.Film;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Версии фильмов и кэш собранных фильмов для {@link FilmDbStorage#getFilmById(Long)}.
+ * Каждая запись помнит версию фильма и справочников, с которой была загружена, и отдается,
+ * только пока эти версии не изменились. Хранилище поднимает версию после каждой записи до возврата
+ * из метода, поэтому после завершения записи устаревший фильм из кэша не получить.
+ * Размер ограничен оценкой занимаемой памяти, вытеснение — W-TinyLFU.
+ */
+@Component
+@Slf4j
+public class FilmCache {
+
+    // Оценка накладных расходов на объект фильма, рейтинг и коллекции, байт
+    private static final int FILM_OVERHEAD = 320;
+    private static final int GENRE_WEIGHT = 48;
+
+    private final GenreStorage genreStorage;
+    private final MpaRatingStorage mpaRatingStorage;
+    private final boolean enabled;
+    private final Cache<Long, Entry> cache;
+    // Только для фильмов, которые менялись после старта, у остальных версия 0. Записи удаленных
+    // фильмов убираются в remove, поэтому размер не больше числа существующих фильмов
+    private final ConcurrentHashMap<Long, Long> versions = new ConcurrentHashMap<>();
+
+    public FilmCache(GenreStorage genreStorage, MpaRatingStorage mpaRatingStorage, MeterRegistry meterRegistry,
+                     @Value("${filmorate.films.cache.enabled:true}") boolean enabled,
+                     @Value("${filmorate.films.cache.max-size:64MB}") DataSize maxSize) {
+        this.genreStorage = genreStorage;
+        this.mpaRatingStorage = mpaRatingStorage;
+        this.enabled = enabled;
+        this.cache = Caffeine.newBuilder()
+                .maximumWeight(maxSize.toBytes())
+                .weigher((Long id, Entry entry) -> weigh(entry.film()))
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "films");
+        log.info("Кэш фильмов {}, объем до {}", enabled ? "включен" : "выключен", maxSize);
+    }
+
+    public long getVersion(long filmId) {
+        return versions.getOrDefault(filmId, 0L);
+    }
+
+    /**
+     * Фильм из кэша или, если его там нет либо он устарел, из {@code loader}.
+     */
+    public Film get(long filmId, Supplier<Film> loader) {
+        if (!enabled) {
+            return loader.get();
+        }
+        // Версии читаются до загрузки: если запись случится во время нее, версия уже не совпадет
+        long version = getVersion(filmId);
+        long referenceVersion = referenceVersion();
+        Entry cached = cache.getIfPresent(filmId);
+        if (cached != null && cached.version() == version && cached.referenceVersion() == referenceVersion) {
+            return cached.film();
+        }
+
+        Film film = loader.get();
+        cache.asMap().compute(filmId, (id, current) ->
+                getVersion(id) == version && referenceVersion() == referenceVersion
+                        ? new Entry(version, referenceVersion, film)
+                        : current);
+        return film;
+    }
+
+    /**
+     * Вызывается хранилищем после любого изменения, которое видно в ответе с фильмом.
+     */
+    public void invalidate(long filmId) {
+        versions.merge(filmId, 1L, Long::sum);
+        cache.invalidate(filmId);
+    }
+
+    /**
+     * Вызывается хранилищем после удаления фильма. Версия удаленного фильма больше не нужна:
+     * хранилище отвечает 404 по списку id, не обращаясь к кэшу.
+     */
+    public void remove(long filmId) {
+        versions.remove(filmId);
+        cache.invalidate(filmId);
+    }
+
+    private long referenceVersion() {
+        // Обе версии только растут, поэтому их сумма меняется при изменении любой из них
+        return genreStorage.getVersion() + mpaRatingStorage.getVersion();
+    }
+
+    private static int weigh(Film film) {
+        int weight = FILM_OVERHEAD;
+        if (film.getName() != null) {
+            weight += film.getName().length() * 2;
+        }
+        if (film.getDescription() != null) {
+            weight += film.getDescription().length() * 2;
+        }
+        if (film.getGenres() != null) {
+            weight += film.getGenres().size() * GENRE_WEIGHT;
+        }
+        return weight;
+    }
+
+    private record Entry(long version, long referenceVersion, Film film) {
+    }
+}
@@ -1,17 +1,20 @@
 package ru.yandex.practicum.filmorate.storage;
 
+import jakarta.annotation.PostConstruct;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.context.annotation.Primary;
 import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.jdbc.core.BatchPreparedStatementSetter;
 import org.springframework.jdbc.core.JdbcTemplate;
-import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.core.RowCallbackHandler;
 import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
 import org.springframework.jdbc.support.GeneratedKeyHolder;
 import org.springframework.jdbc.support.KeyHolder;
 import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
 import ru.yandex.practicum.filmorate.exception.FilmNotFoundException;
 import ru.yandex.practicum.filmorate.exception.GenreNotFoundException;
 import ru.yandex.practicum.filmorate.exception.MpaNotFoundException;
@@ -21,8 +24,13 @@ import ru.yandex.practicum.filmorate.model.MpaRating;
 
 import java.sql.Date;
 import java.sql.PreparedStatement;
+import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
 import java.util.*;
+import java.util.function.Consumer;
 
 @Component
 @Qualifier("filmDbStorage")
@@ -30,52 +38,69 @@ import java.util.*;
 @Primary
 public class FilmDbStorage implements FilmStorage {
 
+    private static final int IN_CLAUSE_BATCH_SIZE = 1000;
+    private static final int EXPORT_FETCH_SIZE = 1000;
+    private static final String ADJUST_LIKE_COUNT_SQL = "UPDATE films SET like_count = like_count + ? WHERE id = ?";
+    private static final String FILM_COLUMNS = "f.id, f.name, f.description, f.release_date, f.duration, f.mpa_id, f.like_count, " +
+            "fg.genre_id";
+
     private final JdbcTemplate jdbcTemplate;
     private final NamedParameterJdbcTemplate namedParameterJdbcTemplate;
+    private final FilmPopularityIndex popularityIndex;
+    private final LikeIndex likeIndex;
+    private final TrendingIndex trendingIndex;
+    private final FilmSearchIndex searchIndex;
+    private final GenreStorage genreStorage;
+    private final MpaRatingStorage mpaRatingStorage;
+    private final TransactionTemplate transactionTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+    private final FilmCache filmCache;
+    private final FilmRowAggregator filmRows;
+    private final IdBitmap filmIds = new IdBitmap();
 
     @Autowired
-    public FilmDbStorage(JdbcTemplate jdbcTemplate, NamedParameterJdbcTemplate namedParameterJdbcTemplate) {
+    public FilmDbStorage(JdbcTemplate jdbcTemplate, NamedParameterJdbcTemplate namedParameterJdbcTemplate,
+                         FilmPopularityIndex popularityIndex, LikeIndex likeIndex, TrendingIndex trendingIndex,
+                         FilmSearchIndex searchIndex, GenreStorage genreStorage, MpaRatingStorage mpaRatingStorage,
+                         TransactionTemplate transactionTemplate, ApplicationEventPublisher eventPublisher,
+                         FilmCache filmCache) {
         this.jdbcTemplate = jdbcTemplate;
         this.namedParameterJdbcTemplate = namedParameterJdbcTemplate;
+        this.popularityIndex = popularityIndex;
+        this.likeIndex = likeIndex;
+        this.trendingIndex = trendingIndex;
+        this.searchIndex = searchIndex;
+        this.genreStorage = genreStorage;
+        this.mpaRatingStorage = mpaRatingStorage;
+        this.transactionTemplate = transactionTemplate;
+        this.eventPublisher = eventPublisher;
+        this.filmCache = filmCache;
+        this.filmRows = new FilmRowAggregator(genreStorage, mpaRatingStorage);
     }
 
-    private final RowMapper<Film> filmRowMapper = (rs, rowNum) -> {
-        log.info("Mapping row: {}", rowNum);
-        Film film = new Film();
-        try {
-            film.setId(rs.getLong("id"));
-            film.setName(rs.getString("name"));
-            film.setDescription(rs.getString("description"));
-            film.setReleaseDate(rs.getDate("release_date").toLocalDate());
-            film.setDuration(rs.getInt("duration"));    MpaRating mpaRating = new MpaRating();
-            mpaRating.setId(rs.getLong("mpa_id"));
-            film.setMpa(mpaRating);
-
-            return film;
-        } catch (SQLException e) {
-            log.error("Error mapping row", e);
-            throw new RuntimeException(e);
-        }
-
-    };
+    @PostConstruct
+    public void loadFilmIds() {
+        filmIds.clear();
+        jdbcTemplate.query("SELECT id FROM films", rs -> {
+            filmIds.add(rs.getLong("id"));
+        });
+        log.info("Загружены идентификаторы фильмов: {}", filmIds.size());
+    }
 
     @Override
     public Collection<Film> findAllFilms() {
         log.info("Получен запрос на получение всех фильмов (из хранилища)");
-        String sql = "SELECT id, name, description, release_date, duration, mpa_id FROM films";
-        return jdbcTemplate.query(sql, filmRowMapper);
+        String sql = "SELECT " + FILM_COLUMNS + " FROM films AS f " +
+                "LEFT JOIN film_genres AS fg ON f.id = fg.film_id " +
+                "ORDER BY f.id, fg.genre_id";
+        return jdbcTemplate.query(sql, filmRows.toList(filmIds.size()));
     }
 
     @Override
     public Film create(Film film) {
         long mpaId = film.getMpa().getId();
-        String checkMpaSql = "SELECT COUNT(*) FROM motion_picture_association WHERE mpa_id = ?";
-        Integer mpaCount = jdbcTemplate.queryForObject(checkMpaSql, Integer.class, mpaId);
-
-        if (mpaCount == null || mpaCount == 0) {
-            log.error("Mpa with id {} not found", mpaId);
-            throw new MpaNotFoundException("Mpa with id " + mpaId + " not found");
-        }
+        validateMpa(mpaId);
+        validateGenres(film);
 
         try {
             String sql = "INSERT INTO films (name, description, release_date, duration, mpa_id) VALUES (?, ?, ?, ?, ?)";
@@ -93,6 +118,7 @@ public class FilmDbStorage implements FilmStorage {
             }, keyHolder);
 
             film.setId(Objects.requireNonNull(keyHolder.getKey()).longValue());
+            filmIds.add(film.getId());
             log.info("Фильм с id {} успешно создан", film.getId());
 
             if (film.getGenres() != null && !film.getGenres().isEmpty()) {
@@ -108,6 +134,8 @@ public class FilmDbStorage implements FilmStorage {
                 }
 
             }
+            // Индексируем и оповещаем после записи жанров, чтобы читатели события видели фильм целиком
+            indexFilm(film);
 
             return film;
         } catch (DataIntegrityViolationException e) {
@@ -118,8 +146,60 @@ public class FilmDbStorage implements FilmStorage {
     }
 
 
+    @Override
+    public List<Film> createFilms(List<Film> films) {
+        String sql = "INSERT INTO films (name, description, release_date, duration, mpa_id) VALUES (?, ?, ?, ?, ?)";
+        String genresSql = "INSERT INTO film_genres (film_id, genre_id) VALUES (?, ?)";
+
+        transactionTemplate.executeWithoutResult(status -> {
+            KeyHolder keyHolder = new GeneratedKeyHolder();
+            jdbcTemplate.batchUpdate(connection -> connection.prepareStatement(sql, new String[]{"id"}),
+                    new BatchPreparedStatementSetter() {
+                        @Override
+                        public void setValues(PreparedStatement ps, int i) throws SQLException {
+                            Film film = films.get(i);
+                            ps.setString(1, film.getName());
+                            ps.setString(2, film.getDescription());
+                            ps.setDate(3, Date.valueOf(film.getReleaseDate()));
+                            ps.setInt(4, film.getDuration());
+                            ps.setLong(5, film.getMpa().getId());
+                        }
+
+                        @Override
+                        public int getBatchSize() {
+                            return films.size();
+                        }
+                    }, keyHolder);
+
+            List<Map<String, Object>> keys = keyHolder.getKeyList();
+            List<long[]> filmGenres = new ArrayList<>();
+            for (int i = 0; i < films.size(); i++) {
+                Film film = films.get(i);
+                film.setId(((Number) keys.get(i).get("id")).longValue());
+                if (film.getGenres() != null) {
+                    film.getGenres().forEach(genre -> filmGenres.add(new long[]{film.getId(), genre.getId()}));
+                }
+            }
+
+            jdbcTemplate.batchUpdate(genresSql, filmGenres, filmGenres.size(), (ps, filmGenre) -> {
+                ps.setLong(1, filmGenre[0]);
+                ps.setLong(2, filmGenre[1]);
+            });
+        });
+
+        films.forEach(film -> {
+            filmIds.add(film.getId());
+            indexFilm(film);
+        });
+        log.info("Пакетно создано фильмов: {}", films.size());
+        return films;
+    }
+
     @Override
     public Film updateFilm(Film newFilm) {
+        validateMpa(newFilm.getMpa().getId());
+        validateGenres(newFilm);
+
         String sql = "UPDATE films SET name = ?, description = ?, release_date = ?, " +
                 "duration = ?, mpa_id = ? WHERE id = ?";
 
@@ -137,6 +217,8 @@ public class FilmDbStorage implements FilmStorage {
         }
 
         updateFilmGenres(newFilm);
+        filmCache.invalidate(newFilm.getId());
+        indexFilm(newFilm);
 
         log.info("Фильм с id {} успешно обновлен", newFilm.getId());
         return getFilmById(newFilm.getId());
@@ -144,48 +226,21 @@ public class FilmDbStorage implements FilmStorage {
 
     @Override
     public Film getFilmById(Long id) {
-        String sql = "SELECT f.id, f.name, f.description, f.release_date, f.duration, f.mpa_id, m.mpa_name, " +
-                "g.genre_id, g.genre_name " +
-                "FROM films AS f " +
-                "LEFT JOIN motion_picture_association AS m ON f.mpa_id = m.mpa_id " + // Добавляем JOIN
+        // Удаленный фильм мог попасть в кэш загрузкой, шедшей параллельно с удалением
+        if (!filmIds.contains(id)) {
+            log.warn("Фильм с id {} не найден", id);
+            throw new FilmNotFoundException("Фильм с id " + id + " не найден.");
+        }
+        return filmCache.get(id, () -> loadFilm(id));
+    }
+
+    private Film loadFilm(Long id) {
+        String sql = "SELECT " + FILM_COLUMNS + " FROM films AS f " +
                 "LEFT JOIN film_genres AS fg ON f.id = fg.film_id " +
-                "LEFT JOIN genres AS g ON fg.genre_id = g.genre_id " +
-                "WHERE f.id = ?";
-
-        List<Film> films = jdbcTemplate.query(sql, rs -> {
-            List<Film> filmList = new ArrayList<>();
-            Film currentFilm = null;
-            while (rs.next()) {
-                Long filmId = rs.getLong("id");
-                if (currentFilm == null || currentFilm.getId() != filmId) {
-                    if (currentFilm != null) {
-                        filmList.add(currentFilm);
-                    }
-                    currentFilm = new Film();
-                    currentFilm.setId(filmId);
-                    currentFilm.setName(rs.getString("name"));
-                    currentFilm.setDescription(rs.getString("description"));
-                    currentFilm.setReleaseDate(rs.getDate("release_date").toLocalDate());
-                    currentFilm.setDuration(rs.getInt("duration"));
-
-                    MpaRating mpaRating = new MpaRating();
-                    mpaRating.setId(rs.getLong("mpa_id"));
-                    mpaRating.setName(rs.getString("mpa_name"));
-                    currentFilm.setMpa(mpaRating);
-                    currentFilm.setGenres(new HashSet<>());
-                }
-                if (rs.getLong("genre_id") != 0) {
-                    Genre genre = new Genre();
-                    genre.setId(rs.getLong("genre_id"));
-                    genre.setName(rs.getString("genre_name"));
-                    currentFilm.getGenres().add(genre);
-                }
-            }
-            if (currentFilm != null) {
-                filmList.add(currentFilm);
-            }
-            return filmList;
-        }, id);
+                "WHERE f.id = ? " +
+                "ORDER BY fg.genre_id";
+
+        List<Film> films = jdbcTemplate.query(sql, filmRows.toList(1), id);
         if (films.isEmpty()) {
             log.warn("Фильм с id {} не найден", id);
             throw new FilmNotFoundException("Фильм с id " + id + " не найден.");
@@ -193,6 +248,16 @@ public class FilmDbStorage implements FilmStorage {
         return films.get(0);
     }
 
+    @Override
+    public boolean existsById(Long id) {
+        return filmIds.contains(id);
+    }
+
+    @Override
+    public long getVersion(Long id) {
+        return filmCache.getVersion(id);
+    }
+
     @Override
     public void deleteFilm(Long id) {
         String sql = "DELETE FROM films WHERE id = ?";
@@ -202,22 +267,120 @@ public class FilmDbStorage implements FilmStorage {
             log.warn("Фильм с id {} не найден", id);
             throw new FilmNotFoundException("Фильм с id " + id + " не найден.");
         }
+        filmIds.remove(id);
+        filmCache.remove(id);
+        popularityIndex.removeFilm(id);
+        likeIndex.removeFilm(id);
+        trendingIndex.removeFilm(id);
+        searchIndex.removeFilm(id);
+        publishFilmChange(id);
         log.info("Фильм с id {} успешно удален", id);
     }
 
     @Override
-    public Collection<Film> getPopularFilms(int count) {
-        String sql = "SELECT f.id, f.name, f.description, f.release_date, f.duration, f.mpa_id " +
-                "FROM films f " +
-                "LEFT JOIN likes l ON f.id = l.film_id " +
-                "GROUP BY f.id " +
-                "ORDER BY COUNT(l.user_id) DESC " +
-                "LIMIT :count";
-
-        Map<String, Object> params = new HashMap<>();
-        params.put("count", count);
-
-        return namedParameterJdbcTemplate.query(sql, params, filmRowMapper);
+    public Collection<Film> getPopularFilms(int count, Long genreId, Integer year) {
+        List<Long> filmIds = popularityIndex.getTopFilmIds(count, genreId, year);
+        if (filmIds.isEmpty()) {
+            return List.of();
+        }
+
+        return getFilmsByIds(filmIds);
+    }
+
+    @Override
+    public Collection<Film> getTrendingFilms(int count, Duration window, Long genreId, Integer year) {
+        return getFilmsByIds(trendingIndex.getTopFilmIds(count, window,
+                filmId -> popularityIndex.matches(filmId, genreId, year)));
+    }
+
+    @Override
+    public List<Film> searchFilms(String query, Collection<FilmSearchIndex.Field> fields, int limit) {
+        long[] matches = searchIndex.search(query, fields);
+
+        // Из найденных берем самые популярные, не сортируя все совпадения
+        Comparator<Long> worstFirst = Comparator.<Long>comparingLong(popularityIndex::getLikes)
+                .thenComparing(Comparator.reverseOrder());
+        PriorityQueue<Long> top = new PriorityQueue<>(limit + 1, worstFirst);
+        for (long filmId : matches) {
+            top.add(filmId);
+            if (top.size() > limit) {
+                top.poll();
+            }
+        }
+
+        List<Long> filmIds = new ArrayList<>(top);
+        filmIds.sort(worstFirst.reversed());
+        return getFilmsByIds(filmIds);
+    }
+
+    @Override
+    public List<Film> findFilmsAfter(long afterId, int limit) {
+        // Лимит применяется к фильмам, а не к строкам соединения с жанрами
+        String sql = "SELECT " + FILM_COLUMNS + " FROM " +
+                "(SELECT * FROM films WHERE id > ? ORDER BY id LIMIT ?) AS f " +
+                "LEFT JOIN film_genres AS fg ON f.id = fg.film_id " +
+                "ORDER BY f.id, fg.genre_id";
+        return jdbcTemplate.query(sql, filmRows.toList(limit), afterId, limit);
+    }
+
+    @Override
+    public void forEachFilm(Consumer<Film> action) {
+        String sql = "SELECT " + FILM_COLUMNS + " FROM films AS f " +
+                "LEFT JOIN film_genres AS fg ON f.id = fg.film_id " +
+                "ORDER BY f.id, fg.genre_id";
+        jdbcTemplate.query(connection -> {
+            PreparedStatement ps = connection.prepareStatement(sql, ResultSet.TYPE_FORWARD_ONLY,
+                    ResultSet.CONCUR_READ_ONLY);
+            ps.setFetchSize(EXPORT_FETCH_SIZE);
+            return ps;
+        }, filmRows.forEach(action));
+    }
+
+    @Override
+    public List<Film> getFilmsByIds(List<Long> filmIds) {
+        if (filmIds.isEmpty()) {
+            return List.of();
+        }
+
+        String sql = "SELECT " + FILM_COLUMNS + " FROM films AS f " +
+                "LEFT JOIN film_genres AS fg ON f.id = fg.film_id " +
+                "WHERE f.id IN (:ids) " +
+                "ORDER BY fg.genre_id";
+
+        Map<Long, Film> filmsById = HashMap.newHashMap(filmIds.size());
+        for (int from = 0; from < filmIds.size(); from += IN_CLAUSE_BATCH_SIZE) {
+            List<Long> batch = filmIds.subList(from, Math.min(from + IN_CLAUSE_BATCH_SIZE, filmIds.size()));
+            namedParameterJdbcTemplate.query(sql, Map.of("ids", batch), filmRows.toList(batch.size()))
+                    .forEach(film -> filmsById.put(film.getId(), film));
+        }
+
+        List<Film> films = new ArrayList<>(filmIds.size());
+        for (Long filmId : filmIds) {
+            Film film = filmsById.get(filmId);
+            if (film != null) {
+                films.add(film);
+            }
+        }
+        return films;
+    }
+
+    private void validateMpa(long mpaId) {
+        if (mpaRatingStorage.getMpaRatingById(mpaId).isEmpty()) {
+            log.error("Mpa with id {} not found", mpaId);
+            throw new MpaNotFoundException("Mpa with id " + mpaId + " not found");
+        }
+    }
+
+    private void validateGenres(Film film) {
+        if (film.getGenres() == null) {
+            return;
+        }
+        for (Genre genre : film.getGenres()) {
+            if (genreStorage.getGenreById(genre.getId()).isEmpty()) {
+                log.error("Жанр с id {} не найден", genre.getId());
+                throw new GenreNotFoundException("Жанр с id " + genre.getId() + " не найден.");
+            }
+        }
     }
 
     private void saveFilmGenres(Film film) {
@@ -248,6 +411,19 @@ public class FilmDbStorage implements FilmStorage {
     }
 
 
+    private void indexFilm(Film film) {
+        List<Long> genreIds = film.getGenres() == null
+                ? List.of()
+                : film.getGenres().stream().map(Genre::getId).toList();
+        popularityIndex.addFilm(film.getId(), film.getReleaseDate().getYear(), genreIds);
+        searchIndex.putFilm(film.getId(), film.getName(), film.getDescription());
+        publishFilmChange(film.getId());
+    }
+
+    private void publishFilmChange(long filmId) {
+        eventPublisher.publishEvent(new StorageChangeEvent(StorageChangeEvent.Entity.FILM, filmId));
+    }
+
     private void updateFilmGenres(Film film) {
         String deleteSql = "DELETE FROM film_genres WHERE film_id = ?";
         jdbcTemplate.update(deleteSql, film.getId());
@@ -257,30 +433,160 @@ public class FilmDbStorage implements FilmStorage {
         }
     }
 
-    private void loadFilmGenres(Film film) {
-        String sql = "SELECT g.genre_id, g.name FROM film_genres AS fg JOIN genres AS g ON fg.genre_id = g.genre_id WHERE film_id = ?";
-
-        List<Genre> genres = jdbcTemplate.query(sql, (rs, rowNum) -> {
-            Genre genre = new Genre();
-            genre.setId(rs.getLong("genre_id"));
-            genre.setName(rs.getString("name"));
-            return genre;
-        }, film.getId());
-
-        film.setGenres(new HashSet<>(genres));
-    }
-
+    /**
+     * Индексы обновляются после коммита без общей блокировки. Если лайк и его снятие одной пары
+     * фильм/пользователь выполняются параллельно, {@link LikeIndex} и {@link TrendingIndex} могут
+     * получить их в обратном порядке и разойтись с БД до перестроения при следующем старте.
+     * Счетчикам {@link FilmPopularityIndex} порядок безразличен, пока значение не упирается в ноль.
+     */
     @Override
     public void addLike(Long filmId, Long userId) {
         String sql = "INSERT INTO likes (film_id, user_id, like_timestamp) VALUES (?, ?, ?)";
-        jdbcTemplate.update(sql, filmId, userId, new java.sql.Timestamp(System.currentTimeMillis()));
+        Instant likedAt = Instant.now();
+        transactionTemplate.executeWithoutResult(status -> {
+            jdbcTemplate.update(sql, filmId, userId, Timestamp.from(likedAt));
+            jdbcTemplate.update(ADJUST_LIKE_COUNT_SQL, 1, filmId);
+        });
+        filmCache.invalidate(filmId);
+        publishFilmChange(filmId);
+        popularityIndex.incrementLikes(filmId);
+        likeIndex.addLike(filmId, userId);
+        trendingIndex.addLike(filmId, likedAt);
         log.info("Пользователь {} поставил лайк фильму {}", userId, filmId);
     }
 
     @Override
     public void removeLike(Long filmId, Long userId) {
-        String sql = "DELETE FROM likes WHERE film_id = ? AND user_id = ?";
-        jdbcTemplate.update(sql, filmId, userId);
+        // Время удаленного лайка нужно, чтобы снять его с нужного часа в индексе трендов
+        String sql = "SELECT like_timestamp FROM OLD TABLE (DELETE FROM likes WHERE film_id = ? AND user_id = ?)";
+        List<Timestamp> removed = transactionTemplate.execute(status -> {
+            List<Timestamp> likeTimes = jdbcTemplate.query(sql, (rs, rowNum) -> rs.getTimestamp("like_timestamp"),
+                    filmId, userId);
+            if (!likeTimes.isEmpty()) {
+                jdbcTemplate.update(ADJUST_LIKE_COUNT_SQL, -likeTimes.size(), filmId);
+            }
+            return likeTimes;
+        });
+        for (Timestamp likedAt : Objects.requireNonNull(removed)) {
+            filmCache.invalidate(filmId);
+            publishFilmChange(filmId);
+            popularityIndex.decrementLikes(filmId);
+            likeIndex.removeLike(filmId, userId);
+            if (likedAt != null) {
+                trendingIndex.removeLike(filmId, likedAt.toInstant());
+            }
+        }
         log.info("Пользователь {} удалил лайк с фильма {}", userId, filmId);
     }
+
+    @Override
+    public void applyLikeChanges(List<LikeChange> changes) {
+        String insertSql = "INSERT INTO likes (film_id, user_id, like_timestamp) " +
+                "SELECT ?, ?, ? WHERE NOT EXISTS (SELECT 1 FROM likes WHERE film_id = ? AND user_id = ?)";
+        String deleteSql = "DELETE FROM likes WHERE film_id = ? AND user_id = ?";
+
+        List<LikeChange> likes = changes.stream().filter(LikeChange::liked).toList();
+        List<LikeChange> unlikes = changes.stream().filter(change -> !change.liked()).toList();
+
+        Map<LikeKey, Instant> unlikedLikeTimes = new HashMap<>();
+        List<int[]> updateCounts = Objects.requireNonNull(transactionTemplate.execute(status -> {
+            int[] inserted = likes.isEmpty() ? new int[0] : flatten(jdbcTemplate.batchUpdate(insertSql, likes,
+                    likes.size(), (ps, like) -> {
+                        ps.setLong(1, like.filmId());
+                        ps.setLong(2, like.userId());
+                        ps.setTimestamp(3, Timestamp.from(like.timestamp()));
+                        ps.setLong(4, like.filmId());
+                        ps.setLong(5, like.userId());
+                    }));
+            int[] deleted = new int[0];
+            if (!unlikes.isEmpty()) {
+                unlikedLikeTimes.putAll(loadLikeTimes(unlikes));
+                deleted = flatten(jdbcTemplate.batchUpdate(deleteSql, unlikes, unlikes.size(), (ps, unlike) -> {
+                    ps.setLong(1, unlike.filmId());
+                    ps.setLong(2, unlike.userId());
+                }));
+            }
+            adjustLikeCounts(likes, inserted, unlikes, deleted);
+            return List.of(inserted, deleted);
+        }));
+
+        int[] inserted = updateCounts.get(0);
+        int[] deleted = updateCounts.get(1);
+        for (int i = 0; i < inserted.length; i++) {
+            if (inserted[i] > 0) {
+                LikeChange like = likes.get(i);
+                filmCache.invalidate(like.filmId());
+                publishFilmChange(like.filmId());
+                popularityIndex.incrementLikes(like.filmId());
+                likeIndex.addLike(like.filmId(), like.userId());
+                trendingIndex.addLike(like.filmId(), like.timestamp());
+            }
+        }
+        for (int i = 0; i < deleted.length; i++) {
+            if (deleted[i] > 0) {
+                LikeChange unlike = unlikes.get(i);
+                filmCache.invalidate(unlike.filmId());
+                publishFilmChange(unlike.filmId());
+                popularityIndex.decrementLikes(unlike.filmId());
+                likeIndex.removeLike(unlike.filmId(), unlike.userId());
+                Instant likedAt = unlikedLikeTimes.get(new LikeKey(unlike.filmId(), unlike.userId()));
+                if (likedAt != null) {
+                    trendingIndex.removeLike(unlike.filmId(), likedAt);
+                }
+            }
+        }
+        log.info("Применено изменений лайков: {}", changes.size());
+    }
+
+    // Счетчики меняются только на число реально вставленных и удаленных строк, по одному запросу на фильм
+    private void adjustLikeCounts(List<LikeChange> likes, int[] inserted, List<LikeChange> unlikes, int[] deleted) {
+        Map<Long, Integer> deltas = new HashMap<>();
+        for (int i = 0; i < inserted.length; i++) {
+            if (inserted[i] > 0) {
+                deltas.merge(likes.get(i).filmId(), 1, Integer::sum);
+            }
+        }
+        for (int i = 0; i < deleted.length; i++) {
+            if (deleted[i] > 0) {
+                deltas.merge(unlikes.get(i).filmId(), -1, Integer::sum);
+            }
+        }
+        deltas.values().removeIf(delta -> delta == 0);
+        if (deltas.isEmpty()) {
+            return;
+        }
+        List<Map.Entry<Long, Integer>> updates = new ArrayList<>(deltas.entrySet());
+        // Один порядок блокировок строк у всех пакетов
+        updates.sort(Map.Entry.comparingByKey());
+        jdbcTemplate.batchUpdate(ADJUST_LIKE_COUNT_SQL, updates, updates.size(), (ps, update) -> {
+            ps.setInt(1, update.getValue());
+            ps.setLong(2, update.getKey());
+        });
+    }
+
+    // Время снимаемых лайков для индекса трендов: пакетное удаление не возвращает удаленные строки
+    private Map<LikeKey, Instant> loadLikeTimes(List<LikeChange> unlikes) {
+        String sql = "SELECT film_id, user_id, like_timestamp FROM likes WHERE (film_id, user_id) IN (:keys)";
+        Map<LikeKey, Instant> likeTimes = new HashMap<>(unlikes.size());
+        for (int from = 0; from < unlikes.size(); from += IN_CLAUSE_BATCH_SIZE) {
+            List<Object[]> keys = unlikes.subList(from, Math.min(from + IN_CLAUSE_BATCH_SIZE, unlikes.size()))
+                    .stream()
+                    .map(unlike -> new Object[]{unlike.filmId(), unlike.userId()})
+                    .toList();
+            namedParameterJdbcTemplate.query(sql, Map.of("keys", keys), (RowCallbackHandler) rs -> {
+                Timestamp likedAt = rs.getTimestamp("like_timestamp");
+                if (likedAt != null) {
+                    likeTimes.put(new LikeKey(rs.getLong("film_id"), rs.getLong("user_id")), likedAt.toInstant());
+                }
+            });
+        }
+        return likeTimes;
+    }
+
+    private static int[] flatten(int[][] batchCounts) {
+        return Arrays.stream(batchCounts).flatMapToInt(Arrays::stream).toArray();
+    }
+
+    private record LikeKey(long filmId, long userId) {
+    }
 }
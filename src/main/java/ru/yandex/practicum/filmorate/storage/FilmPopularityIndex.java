@@ -0,0 +1,188 @@
+package ru.yandex.practicum.filmorate.storage;
+
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+
+/**
+ * Счётчики лайков по фильмам, отсортированные по популярности.
+ * Кроме общего рейтинга ведутся отдельные рейтинги по жанру, по году выхода и по паре жанр/год,
+ * поэтому топ с фильтром выбирается так же быстро, как без него.
+ * Поддерживается в актуальном состоянии вызовами из хранилищ и
+ * перестраивается из таблиц films и film_genres при старте приложения.
+ * Изменения одного фильма применяются по очереди внутри {@code likeCounts.compute}, но порядок
+ * вызовов из разных запросов может не совпадать с порядком коммитов, см. {@link FilmDbStorage#addLike}.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class FilmPopularityIndex {
+
+    private static final Comparator<Entry> BY_LIKES_DESC = Comparator.comparingLong(Entry::likes).reversed()
+            .thenComparingLong(Entry::filmId);
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private final ConcurrentHashMap<Long, Long> likeCounts = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<Long, Facets> facetsByFilm = new ConcurrentHashMap<>();
+    private final ConcurrentSkipListSet<Entry> ranking = new ConcurrentSkipListSet<>(BY_LIKES_DESC);
+    private final ConcurrentHashMap<RankingKey, ConcurrentSkipListSet<Entry>> facetRankings =
+            new ConcurrentHashMap<>();
+
+    @PostConstruct
+    public void rebuild() {
+        Map<Long, Set<Long>> genresByFilm = new HashMap<>();
+        jdbcTemplate.query("SELECT film_id, genre_id FROM film_genres", (RowCallbackHandler) rs ->
+                genresByFilm.computeIfAbsent(rs.getLong("film_id"), id -> new HashSet<>())
+                        .add(rs.getLong("genre_id")));
+
+        String sql = "SELECT id, EXTRACT(YEAR FROM release_date) AS release_year, like_count AS likes FROM films";
+
+        likeCounts.clear();
+        facetsByFilm.clear();
+        ranking.clear();
+        facetRankings.clear();
+        jdbcTemplate.query(sql, (RowCallbackHandler) rs -> {
+            long filmId = rs.getLong("id");
+            long likes = rs.getLong("likes");
+            Facets facets = new Facets(rs.getInt("release_year"), genresByFilm.getOrDefault(filmId, Set.of()));
+            likeCounts.put(filmId, likes);
+            facetsByFilm.put(filmId, facets);
+            addToRankings(new Entry(filmId, likes), facets);
+        });
+        log.info("Индекс популярности построен, фильмов: {}", likeCounts.size());
+    }
+
+    /**
+     * Добавляет фильм или, если он уже есть, переносит его в рейтинги по новым жанрам и году.
+     */
+    public void addFilm(long filmId, int releaseYear, Collection<Long> genreIds) {
+        Facets facets = new Facets(releaseYear, Set.copyOf(genreIds));
+        likeCounts.compute(filmId, (id, likes) -> {
+            if (likes != null) {
+                removeFromRankings(new Entry(id, likes), facetsByFilm.get(id));
+            }
+            long current = likes != null ? likes : 0;
+            facetsByFilm.put(id, facets);
+            addToRankings(new Entry(id, current), facets);
+            return current;
+        });
+    }
+
+    public void removeFilm(long filmId) {
+        likeCounts.computeIfPresent(filmId, (id, likes) -> {
+            removeFromRankings(new Entry(id, likes), facetsByFilm.remove(id));
+            return null;
+        });
+    }
+
+    public void incrementLikes(long filmId) {
+        adjustLikes(filmId, 1);
+    }
+
+    public void decrementLikes(long filmId) {
+        adjustLikes(filmId, -1);
+    }
+
+    public long getLikes(long filmId) {
+        return likeCounts.getOrDefault(filmId, 0L);
+    }
+
+    /**
+     * Самые популярные фильмы, при необходимости только заданного жанра и/или года выхода.
+     */
+    public List<Long> getTopFilmIds(int count, Long genreId, Integer year) {
+        if (count <= 0) {
+            return List.of();
+        }
+        ConcurrentSkipListSet<Entry> source = genreId == null && year == null
+                ? ranking
+                : facetRankings.get(new RankingKey(genreId, year));
+        if (source == null) {
+            return List.of();
+        }
+        // Во время перестановки фильм может ненадолго встретиться дважды, поэтому отбрасываем повторы
+        Set<Long> filmIds = new LinkedHashSet<>();
+        Iterator<Entry> iterator = source.iterator();
+        while (filmIds.size() < count && iterator.hasNext()) {
+            filmIds.add(iterator.next().filmId());
+        }
+        return new ArrayList<>(filmIds);
+    }
+
+    /**
+     * Подходит ли фильм под фильтр по жанру и году; {@code null} означает отсутствие фильтра.
+     */
+    public boolean matches(long filmId, Long genreId, Integer year) {
+        Facets facets = facetsByFilm.get(filmId);
+        return facets != null
+                && (genreId == null || facets.genreIds().contains(genreId))
+                && (year == null || facets.year() == year);
+    }
+
+    private void adjustLikes(long filmId, long delta) {
+        likeCounts.computeIfPresent(filmId, (id, likes) -> {
+            long updated = Math.max(0, likes + delta);
+            if (updated == likes) {
+                // Уже ноль: добавление и удаление одной и той же записи убрало бы фильм из рейтингов
+                return likes;
+            }
+            Facets facets = facetsByFilm.get(id);
+            addToRankings(new Entry(id, updated), facets);
+            removeFromRankings(new Entry(id, likes), facets);
+            return updated;
+        });
+    }
+
+    private void addToRankings(Entry entry, Facets facets) {
+        ranking.add(entry);
+        for (RankingKey key : facets.rankingKeys()) {
+            facetRankings.computeIfAbsent(key, k -> new ConcurrentSkipListSet<>(BY_LIKES_DESC)).add(entry);
+        }
+    }
+
+    private void removeFromRankings(Entry entry, Facets facets) {
+        ranking.remove(entry);
+        for (RankingKey key : facets.rankingKeys()) {
+            ConcurrentSkipListSet<Entry> facetRanking = facetRankings.get(key);
+            if (facetRanking != null) {
+                facetRanking.remove(entry);
+            }
+        }
+    }
+
+    private record Entry(long filmId, long likes) {
+    }
+
+    private record RankingKey(Long genreId, Integer year) {
+    }
+
+    private record Facets(int year, Set<Long> genreIds) {
+
+        List<RankingKey> rankingKeys() {
+            List<RankingKey> keys = new ArrayList<>(1 + genreIds.size() * 2);
+            keys.add(new RankingKey(null, year));
+            for (Long genreId : genreIds) {
+                keys.add(new RankingKey(genreId, null));
+                keys.add(new RankingKey(genreId, year));
+            }
+            return keys;
+        }
+    }
+}
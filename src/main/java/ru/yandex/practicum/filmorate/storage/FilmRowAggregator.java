@@ -0,0 +1,100 @@
+package ru.yandex.practicum.filmorate.storage;
+
+import org.springframework.jdbc.core.ResultSetExtractor;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.Genre;
+import ru.yandex.practicum.filmorate.model.MpaRating;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * Сворачивает строки соединения films + film_genres (по строке на жанр) в полные объекты {@link Film}.
+ * Ожидаются колонки id, name, description, release_date, duration, mpa_id и genre_id.
+ * Названия рейтингов и жанров берутся из кэшированных справочников, поэтому справочные таблицы в запрос
+ * не подключаются.
+ */
+final class FilmRowAggregator {
+
+    private final GenreStorage genreStorage;
+    private final MpaRatingStorage mpaRatingStorage;
+
+    FilmRowAggregator(GenreStorage genreStorage, MpaRatingStorage mpaRatingStorage) {
+        this.genreStorage = genreStorage;
+        this.mpaRatingStorage = mpaRatingStorage;
+    }
+
+    /**
+     * Фильмы в порядке первого появления. Строки одного фильма не обязаны идти подряд.
+     */
+    ResultSetExtractor<List<Film>> toList(int expectedSize) {
+        return rs -> {
+            Map<Long, Film> films = HashMap.newHashMap(expectedSize);
+            List<Film> result = new ArrayList<>(expectedSize);
+            while (rs.next()) {
+                long filmId = rs.getLong("id");
+                Film film = films.get(filmId);
+                if (film == null) {
+                    film = mapFilm(rs, filmId);
+                    films.put(filmId, film);
+                    result.add(film);
+                }
+                addGenre(film, rs);
+            }
+            return result;
+        };
+    }
+
+    /**
+     * Передает фильмы по одному, не накапливая их. Строки должны быть упорядочены по id фильма.
+     */
+    ResultSetExtractor<Void> forEach(Consumer<Film> action) {
+        return rs -> {
+            Film current = null;
+            while (rs.next()) {
+                long filmId = rs.getLong("id");
+                if (current == null || current.getId() != filmId) {
+                    if (current != null) {
+                        action.accept(current);
+                    }
+                    current = mapFilm(rs, filmId);
+                }
+                addGenre(current, rs);
+            }
+            if (current != null) {
+                action.accept(current);
+            }
+            return null;
+        };
+    }
+
+    private Film mapFilm(ResultSet rs, long filmId) throws SQLException {
+        Film film = new Film();
+        film.setId(filmId);
+        film.setName(rs.getString("name"));
+        film.setDescription(rs.getString("description"));
+        film.setReleaseDate(rs.getDate("release_date").toLocalDate());
+        film.setDuration(rs.getInt("duration"));
+        film.setLikeCount(rs.getInt("like_count"));
+
+        MpaRating mpaRating = new MpaRating();
+        mpaRating.setId(rs.getLong("mpa_id"));
+        mpaRating.setName(mpaRatingStorage.getMpaRatingById(mpaRating.getId()).map(MpaRating::getName).orElse(null));
+        film.setMpa(mpaRating);
+        film.setGenres(new LinkedHashSet<>());
+        return film;
+    }
+
+    private void addGenre(Film film, ResultSet rs) throws SQLException {
+        long genreId = rs.getLong("genre_id");
+        if (!rs.wasNull()) {
+            film.getGenres().add(genreStorage.getGenreById(genreId).orElseGet(() -> new Genre(genreId, null)));
+        }
+    }
+}
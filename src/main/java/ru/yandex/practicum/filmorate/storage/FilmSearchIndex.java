@@ -0,0 +1,227 @@
+package ru.yandex.practicum.filmorate.storage;
+
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+/**
+ * Инвертированный индекс по названию и описанию фильмов. Для каждого слова хранится
+ * отсортированный массив id фильмов, слова лежат в отсортированной карте, поэтому поиск
+ * по префиксу — это выборка диапазона ключей. Слова приводятся к нижнему регистру, «ё» заменяется на «е»,
+ * частые служебные слова русского и английского языков не индексируются, от остальных
+ * {@link LightStemmer} отрезает окончания — одинаково при индексации и в запросе.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class FilmSearchIndex {
+
+    /**
+     * Поле фильма, по которому идет поиск.
+     */
+    public enum Field {
+        TITLE, DESCRIPTION
+    }
+
+    // Более короткие слова запроса ищутся только целиком, иначе под префикс попадает половина словаря
+    private static final int MIN_PREFIX_LENGTH = 2;
+
+    private static final Set<String> STOP_WORDS = Set.of(
+            "и", "в", "во", "не", "на", "с", "со", "что", "как", "а", "по", "но", "к", "у", "из", "за", "о", "об",
+            "от", "до", "для", "же", "ли", "бы", "то", "это", "он", "она", "они", "его", "ее", "их",
+            "the", "a", "an", "and", "or", "of", "in", "on", "at", "to", "for", "with", "by", "is", "it", "its");
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private final Map<Field, ConcurrentSkipListMap<String, long[]>> postings = new EnumMap<>(Field.class);
+    private final ConcurrentHashMap<Long, Map<Field, Set<String>>> termsByFilm = new ConcurrentHashMap<>();
+
+    @PostConstruct
+    public void rebuild() {
+        Map<Field, Map<String, PostingsBuilder>> builders = new EnumMap<>(Field.class);
+        for (Field field : Field.values()) {
+            builders.put(field, new HashMap<>());
+        }
+        termsByFilm.clear();
+        // Фильмы идут по возрастанию id, поэтому списки id собираются уже отсортированными
+        jdbcTemplate.query("SELECT id, name, description FROM films ORDER BY id", (RowCallbackHandler) rs -> {
+            long filmId = rs.getLong("id");
+            Map<Field, Set<String>> terms = terms(rs.getString("name"), rs.getString("description"));
+            terms.forEach((field, fieldTerms) -> fieldTerms.forEach(term -> builders.get(field)
+                    .computeIfAbsent(term, t -> new PostingsBuilder()).add(filmId)));
+            termsByFilm.put(filmId, terms);
+        });
+
+        for (Field field : Field.values()) {
+            ConcurrentSkipListMap<String, long[]> fieldPostings = new ConcurrentSkipListMap<>();
+            builders.get(field).forEach((term, builder) -> fieldPostings.put(term, builder.build()));
+            postings.put(field, fieldPostings);
+        }
+        log.info("Поисковый индекс построен, фильмов: {}, слов в названиях: {}, в описаниях: {}",
+                termsByFilm.size(), postings.get(Field.TITLE).size(), postings.get(Field.DESCRIPTION).size());
+    }
+
+    /**
+     * Индексирует фильм или, если он уже есть, заменяет его слова новыми.
+     */
+    public void putFilm(long filmId, String name, String description) {
+        Map<Field, Set<String>> terms = terms(name, description);
+        termsByFilm.compute(filmId, (id, previous) -> {
+            for (Field field : Field.values()) {
+                Set<String> oldTerms = previous == null ? Set.of() : previous.get(field);
+                Set<String> newTerms = terms.get(field);
+                ConcurrentSkipListMap<String, long[]> fieldPostings = postings.get(field);
+                for (String term : oldTerms) {
+                    if (!newTerms.contains(term)) {
+                        fieldPostings.computeIfPresent(term, (t, ids) -> LongArraySets.remove(ids, id));
+                    }
+                }
+                for (String term : newTerms) {
+                    if (!oldTerms.contains(term)) {
+                        fieldPostings.compute(term, (t, ids) -> LongArraySets.insert(ids, id));
+                    }
+                }
+            }
+            return terms;
+        });
+    }
+
+    public void removeFilm(long filmId) {
+        termsByFilm.computeIfPresent(filmId, (id, terms) -> {
+            terms.forEach((field, fieldTerms) -> fieldTerms.forEach(term -> postings.get(field)
+                    .computeIfPresent(term, (t, ids) -> LongArraySets.remove(ids, id))));
+            return null;
+        });
+    }
+
+    /**
+     * Id фильмов, в которых каждое слово запроса встречается целиком или как начало слова
+     * хотя бы в одном из полей {@code fields}. Порядок — по возрастанию id.
+     */
+    public long[] search(String query, Collection<Field> fields) {
+        Set<String> queryTerms = tokenize(query);
+        if (queryTerms.isEmpty()) {
+            return LongArraySets.EMPTY;
+        }
+
+        List<long[]> matchesByTerm = new ArrayList<>(queryTerms.size());
+        for (String term : queryTerms) {
+            long[] matches = match(term, fields);
+            if (matches.length == 0) {
+                return LongArraySets.EMPTY;
+            }
+            matchesByTerm.add(matches);
+        }
+
+        // Пересекаем, начиная с самых коротких списков
+        matchesByTerm.sort((first, second) -> Integer.compare(first.length, second.length));
+        long[] result = matchesByTerm.get(0);
+        for (int i = 1; i < matchesByTerm.size() && result.length > 0; i++) {
+            result = LongArraySets.intersect(result, matchesByTerm.get(i));
+        }
+        return result;
+    }
+
+    private long[] match(String term, Collection<Field> fields) {
+        List<long[]> lists = new ArrayList<>();
+        int total = 0;
+        for (Field field : fields) {
+            ConcurrentSkipListMap<String, long[]> fieldPostings = postings.get(field);
+            if (term.length() < MIN_PREFIX_LENGTH) {
+                long[] ids = fieldPostings.get(term);
+                if (ids != null) {
+                    lists.add(ids);
+                    total += ids.length;
+                }
+                continue;
+            }
+            ConcurrentNavigableMap<String, long[]> range = fieldPostings.subMap(term, true,
+                    term + Character.MAX_VALUE, false);
+            for (long[] ids : range.values()) {
+                lists.add(ids);
+                total += ids.length;
+            }
+        }
+        if (lists.size() == 1) {
+            return lists.get(0);
+        }
+
+        long[] union = new long[total];
+        int position = 0;
+        for (long[] ids : lists) {
+            System.arraycopy(ids, 0, union, position, ids.length);
+            position += ids.length;
+        }
+        Arrays.sort(union);
+        int size = 0;
+        for (int i = 0; i < union.length; i++) {
+            if (size == 0 || union[size - 1] != union[i]) {
+                union[size++] = union[i];
+            }
+        }
+        return Arrays.copyOf(union, size);
+    }
+
+    private static Map<Field, Set<String>> terms(String name, String description) {
+        Map<Field, Set<String>> terms = new EnumMap<>(Field.class);
+        terms.put(Field.TITLE, tokenize(name));
+        terms.put(Field.DESCRIPTION, tokenize(description));
+        return terms;
+    }
+
+    private static Set<String> tokenize(String text) {
+        if (text == null || text.isEmpty()) {
+            return Set.of();
+        }
+        String normalized = text.toLowerCase(Locale.ROOT).replace('ё', 'е');
+        Set<String> tokens = new LinkedHashSet<>();
+        int start = -1;
+        for (int i = 0; i <= normalized.length(); i++) {
+            boolean letterOrDigit = i < normalized.length() && Character.isLetterOrDigit(normalized.charAt(i));
+            if (letterOrDigit && start < 0) {
+                start = i;
+            } else if (!letterOrDigit && start >= 0) {
+                String token = normalized.substring(start, i);
+                if (!STOP_WORDS.contains(token)) {
+                    tokens.add(LightStemmer.stem(token));
+                }
+                start = -1;
+            }
+        }
+        return tokens;
+    }
+
+    private static final class PostingsBuilder {
+
+        private long[] ids = new long[4];
+        private int size;
+
+        void add(long id) {
+            if (size == ids.length) {
+                ids = Arrays.copyOf(ids, size * 2);
+            }
+            ids[size++] = id;
+        }
+
+        long[] build() {
+            return Arrays.copyOf(ids, size);
+        }
+    }
+}
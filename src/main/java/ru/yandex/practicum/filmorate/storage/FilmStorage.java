@@ -3,23 +3,54 @@ package ru.yandex.practicum.filmorate.storage;
 import jakarta.validation.Valid;
 import ru.yandex.practicum.filmorate.model.Film;
 
+import java.time.Duration;
 import java.util.Collection;
+import java.util.List;
+import java.util.function.Consumer;
 
 public interface FilmStorage {
 
     Collection<Film> findAllFilms();
 
+    List<Film> findFilmsAfter(long afterId, int limit);
+
+    void forEachFilm(Consumer<Film> action);
+
     Film create(@Valid Film film);
 
+    List<Film> createFilms(List<Film> films);
+
     Film updateFilm(@Valid Film newFilm);
 
     Film getFilmById(Long id);
 
+    List<Film> getFilmsByIds(List<Long> filmIds);
+
+    boolean existsById(Long id);
+
+    /**
+     * Версия фильма, увеличивается при каждом его изменении, включая лайки.
+     * Хранится в памяти и после перезапуска начинается с 0.
+     */
+    long getVersion(Long id);
+
     void deleteFilm(Long id);
 
-    Collection<Film> getPopularFilms(int count);
+    /**
+     * Самые популярные фильмы; {@code genreId} и {@code year} необязательны и сужают выборку.
+     */
+    Collection<Film> getPopularFilms(int count, Long genreId, Integer year);
+
+    /**
+     * Фильмы, подходящие под поисковый запрос, от самых популярных.
+     */
+    List<Film> searchFilms(String query, Collection<FilmSearchIndex.Field> fields, int limit);
+
+    Collection<Film> getTrendingFilms(int count, Duration window, Long genreId, Integer year);
 
     void addLike(Long filmId, Long userId);
 
     void removeLike(Long filmId, Long userId);
+
+    void applyLikeChanges(List<LikeChange> changes);
 }
\ No newline at end of file
@@ -1,27 +1,53 @@
 package ru.yandex.practicum.filmorate.storage;
 
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
 import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
 
 @Component
 @RequiredArgsConstructor
 public class FriendshipDbStorage implements FriendshipStorage {
 
+    private static final int IN_CLAUSE_BATCH_SIZE = 1000;
+    private static final String ADJUST_FRIEND_COUNT_SQL =
+            "UPDATE users SET friend_count = friend_count + ? WHERE user_id = ?";
+
     private final JdbcTemplate jdbcTemplate;
+    private final NamedParameterJdbcTemplate namedParameterJdbcTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+    private final TransactionTemplate transactionTemplate;
 
     @Override
     public void addFriend(Long userId, Long friendId) {
         String sql = "INSERT INTO friends (user_id, friend_id) VALUES (?, ?)";
-        jdbcTemplate.update(sql, userId, friendId);
+        transactionTemplate.executeWithoutResult(status -> {
+            jdbcTemplate.update(sql, userId, friendId);
+            jdbcTemplate.update(ADJUST_FRIEND_COUNT_SQL, 1, userId);
+        });
+        eventPublisher.publishEvent(new StorageChangeEvent(StorageChangeEvent.Entity.FRIENDS, userId));
     }
 
     @Override
     public void removeFriend(Long userId, Long friendId) {
         String sql = "DELETE FROM friends WHERE user_id = ? AND friend_id = ?";
-        jdbcTemplate.update(sql, userId, friendId);
+        transactionTemplate.executeWithoutResult(status -> {
+            int deleted = jdbcTemplate.update(sql, userId, friendId);
+            if (deleted > 0) {
+                jdbcTemplate.update(ADJUST_FRIEND_COUNT_SQL, -deleted, userId);
+            }
+        });
+        eventPublisher.publishEvent(new StorageChangeEvent(StorageChangeEvent.Entity.FRIENDS, userId));
     }
 
     @Override
@@ -39,4 +65,32 @@ public class FriendshipDbStorage implements FriendshipStorage {
         String sql = "SELECT friend_id FROM friends WHERE user_id = ?";
         return jdbcTemplate.queryForList(sql, Long.class, userId);
     }
+
+    @Override
+    public Map<Long, long[]> getFriendIdsOf(Collection<Long> userIds) {
+        if (userIds.isEmpty()) {
+            return Map.of();
+        }
+
+        String sql = "SELECT user_id, friend_id FROM friends WHERE user_id IN (:ids) ORDER BY user_id, friend_id";
+        List<Long> ids = new ArrayList<>(userIds);
+        Map<Long, long[]> friendsByUser = new HashMap<>(ids.size());
+        AdjacencyCollector collector = new AdjacencyCollector(friendsByUser);
+        for (int from = 0; from < ids.size(); from += IN_CLAUSE_BATCH_SIZE) {
+            List<Long> batch = ids.subList(from, Math.min(from + IN_CLAUSE_BATCH_SIZE, ids.size()));
+            namedParameterJdbcTemplate.query(sql, Map.of("ids", batch),
+                    (RowCallbackHandler) rs -> collector.accept(rs.getLong("user_id"), rs.getLong("friend_id")));
+        }
+        collector.finish();
+        return friendsByUser;
+    }
+
+    /**
+     * Все связи дружбы парами {user_id, friend_id}, упорядоченные по user_id и friend_id.
+     * Поток держит открытое соединение и должен быть закрыт.
+     */
+    public Stream<long[]> streamFriendships() {
+        String sql = "SELECT user_id, friend_id FROM friends ORDER BY user_id, friend_id";
+        return jdbcTemplate.queryForStream(sql, (rs, rowNum) -> new long[]{rs.getLong("user_id"), rs.getLong("friend_id")});
+    }
 }
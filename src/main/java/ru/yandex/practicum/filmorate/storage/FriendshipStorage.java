@@ -1,6 +1,8 @@
 package ru.yandex.practicum.filmorate.storage;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 
 public interface FriendshipStorage {
 
@@ -11,4 +13,10 @@ public interface FriendshipStorage {
     List<Long> getCommonFriendIds(Long userId, Long otherUserId);
 
     List<Long> getFriendIds(Long userId);
+
+    /**
+     * Друзья сразу нескольких пользователей: для каждого id из {@code userIds}, у которого есть друзья,
+     * возвращается отсортированный массив их id.
+     */
+    Map<Long, long[]> getFriendIdsOf(Collection<Long> userIds);
 }
@@ -10,4 +10,12 @@ public interface GenreStorage {
     Optional<Genre> getGenreById(Long id);
 
     Collection<Genre> getAllGenres();
+
+    /**
+     * Версия справочника, меняется при каждом его изменении. Жанры меняются только скриптом data.sql,
+     * поэтому хранилище без кэша всегда возвращает 0.
+     */
+    default long getVersion() {
+        return 0;
+    }
 }
\ No newline at end of file
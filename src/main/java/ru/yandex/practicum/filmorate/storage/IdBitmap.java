@@ -0,0 +1,73 @@
+package ru.yandex.practicum.filmorate.storage;
+
+import java.util.BitSet;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Множество существующих идентификаторов в виде битовой карты: один бит на id.
+ * Идентификаторы в схеме имеют тип INTEGER, поэтому укладываются в диапазон {@link BitSet}.
+ */
+public class IdBitmap {
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final BitSet bits = new BitSet();
+
+    public void add(long id) {
+        if (!isInRange(id)) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            bits.set((int) id);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(long id) {
+        if (!isInRange(id)) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            bits.clear((int) id);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public boolean contains(Long id) {
+        if (id == null || !isInRange(id)) {
+            return false;
+        }
+        lock.readLock().lock();
+        try {
+            return bits.get(id.intValue());
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public void clear() {
+        lock.writeLock().lock();
+        try {
+            bits.clear();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return bits.cardinality();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private static boolean isInRange(long id) {
+        return id >= 0 && id <= Integer.MAX_VALUE;
+    }
+}
@@ -0,0 +1,118 @@
+package ru.yandex.practicum.filmorate.storage;
+
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Primary;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Stream;
+
+/**
+ * Граф дружбы в памяти поверх {@link FriendshipDbStorage}: для каждого пользователя хранится
+ * отсортированный массив id друзей. Изменения сначала пишутся в БД, затем в граф, обе записи -
+ * под блокировкой пользователя, чтобы параллельные add/remove одной пары не разошлись по порядку
+ * между БД и графом. Чтение идет только из памяти. При удалении пользователя из графа убираются
+ * и его друзья, и он сам из списков других пользователей.
+ * Включается свойством {@code filmorate.friends.in-memory-graph.enabled}.
+ */
+@Component
+@Primary
+@ConditionalOnProperty(name = "filmorate.friends.in-memory-graph.enabled", havingValue = "true")
+@RequiredArgsConstructor
+@Slf4j
+public class InMemoryFriendshipStorage implements FriendshipStorage {
+
+    // Степень двойки; чем больше полос, тем реже несвязанные пользователи ждут запись друг друга в БД
+    private static final int LOCK_STRIPES = 1024;
+
+    private final FriendshipDbStorage friendshipDbStorage;
+    private final UserStorage userStorage;
+
+    private final ConcurrentHashMap<Long, long[]> friendsByUser = new ConcurrentHashMap<>();
+    // Не synchronized: под блокировкой идет запись в БД, а монитор закрепил бы виртуальный поток за несущим
+    private final ReentrantLock[] locks = Stream.generate(ReentrantLock::new).limit(LOCK_STRIPES)
+            .toArray(ReentrantLock[]::new);
+
+    @PostConstruct
+    public void load() {
+        friendsByUser.clear();
+        AdjacencyCollector collector = new AdjacencyCollector(friendsByUser);
+        try (Stream<long[]> edges = friendshipDbStorage.streamFriendships()) {
+            edges.forEach(edge -> collector.accept(edge[0], edge[1]));
+        }
+        collector.finish();
+        log.info("Граф дружбы загружен в память, пользователей с друзьями: {}", friendsByUser.size());
+    }
+
+    @Override
+    public void addFriend(Long userId, Long friendId) {
+        withLock(userId, () -> {
+            friendshipDbStorage.addFriend(userId, friendId);
+            friendsByUser.compute(userId, (id, friends) -> LongArraySets.insert(friends, friendId));
+        });
+    }
+
+    @Override
+    public void removeFriend(Long userId, Long friendId) {
+        withLock(userId, () -> {
+            friendshipDbStorage.removeFriend(userId, friendId);
+            friendsByUser.computeIfPresent(userId, (id, friends) -> LongArraySets.remove(friends, friendId));
+        });
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onStorageChange(StorageChangeEvent event) {
+        if (event.entity() != StorageChangeEvent.Entity.USER || userStorage.existsById(event.id())) {
+            return;
+        }
+        long deletedId = event.id();
+        withLock(deletedId, () -> friendsByUser.remove(deletedId));
+        // Обратных ссылок граф не хранит; удаление пользователя редкое, поэтому достаточно прохода по ключам
+        for (Long userId : friendsByUser.keySet()) {
+            withLock(userId, () -> friendsByUser.computeIfPresent(userId,
+                    (id, friends) -> LongArraySets.remove(friends, deletedId)));
+        }
+        log.debug("Пользователь {} удален из графа дружбы", deletedId);
+    }
+
+    @Override
+    public List<Long> getCommonFriendIds(Long userId, Long otherUserId) {
+        return LongArraySets.toList(LongArraySets.intersect(friendsByUser.get(userId), friendsByUser.get(otherUserId)));
+    }
+
+    @Override
+    public List<Long> getFriendIds(Long userId) {
+        return LongArraySets.toList(friendsByUser.get(userId));
+    }
+
+    @Override
+    public Map<Long, long[]> getFriendIdsOf(Collection<Long> userIds) {
+        Map<Long, long[]> result = new HashMap<>(userIds.size());
+        for (Long userId : userIds) {
+            long[] friends = friendsByUser.get(userId);
+            if (friends != null) {
+                result.put(userId, friends);
+            }
+        }
+        return result;
+    }
+
+    private void withLock(long userId, Runnable action) {
+        ReentrantLock lock = locks[Long.hashCode(userId) & (LOCK_STRIPES - 1)];
+        lock.lock();
+        try {
+            action.run();
+        } finally {
+            lock.unlock();
+        }
+    }
+}
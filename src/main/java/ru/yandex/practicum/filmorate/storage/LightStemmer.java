@@ -0,0 +1,90 @@
+package ru.yandex.practicum.filmorate.storage;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Легкий стеммер для поискового индекса: отрезает падежные и числовые окончания русских
+ * существительных и прилагательных и английское множественное число. Глагольные формы и
+ * суффиксы не трогает, поэтому «матрицы» и «матрицей» сводятся к «матриц», а «бежать» и «бег» — нет.
+ * Основа не короче {@link #MIN_STEM_LENGTH}, иначе короткие слова слипались бы между собой.
+ * Слово приходит в нижнем регистре и с «е» вместо «ё».
+ */
+final class LightStemmer {
+
+    private static final int MIN_STEM_LENGTH = 3;
+
+    // Более длинные окончания проверяются раньше: «ами» раньше «и»
+    private static final List<String> RUSSIAN_ENDINGS = Stream.of(
+                    "иями", "ями", "ами", "ого", "его", "ому", "ему", "ыми", "ими",
+                    "ах", "ях", "ам", "ям", "ов", "ев", "ей", "ой", "ий", "ый", "ом", "ем", "ию", "ью", "ия",
+                    "ие", "ые", "ое", "ее", "ая", "яя", "ую", "юю", "ых", "их", "ым", "им",
+                    "а", "я", "о", "е", "ы", "и", "у", "ю", "ь", "й")
+            .sorted(Comparator.comparingInt(String::length).reversed())
+            .toList();
+
+    private LightStemmer() {
+    }
+
+    static String stem(String word) {
+        if (isCyrillic(word)) {
+            return stemRussian(word);
+        }
+        if (isLatin(word)) {
+            return stemEnglish(word);
+        }
+        return word;
+    }
+
+    private static String stemRussian(String word) {
+        for (String ending : RUSSIAN_ENDINGS) {
+            if (word.endsWith(ending) && word.length() - ending.length() >= MIN_STEM_LENGTH) {
+                return word.substring(0, word.length() - ending.length());
+            }
+        }
+        return word;
+    }
+
+    // «stories», «story» → «stori»; «movies», «movie» → «movi»; «toys», «toy» → «toy»; «boxes» → «box»
+    private static String stemEnglish(String word) {
+        String stem = word;
+        if (word.endsWith("ies")) {
+            stem = word.substring(0, word.length() - 2);
+        } else if (word.endsWith("ie")) {
+            stem = word.substring(0, word.length() - 1);
+        } else if (word.endsWith("y") && word.length() > 1 && !isVowel(word.charAt(word.length() - 2))) {
+            stem = word.substring(0, word.length() - 1) + "i";
+        } else if (word.endsWith("sses") || word.endsWith("xes") || word.endsWith("zes")
+                || word.endsWith("ches") || word.endsWith("shes")) {
+            stem = word.substring(0, word.length() - 2);
+        } else if (word.endsWith("s") && !word.endsWith("ss") && !word.endsWith("us") && !word.endsWith("is")) {
+            stem = word.substring(0, word.length() - 1);
+        }
+        return stem.length() >= MIN_STEM_LENGTH ? stem : word;
+    }
+
+    private static boolean isVowel(char c) {
+        return c == 'a' || c == 'e' || c == 'i' || c == 'o' || c == 'u';
+    }
+
+    private static boolean isCyrillic(String word) {
+        for (int i = 0; i < word.length(); i++) {
+            char c = word.charAt(i);
+            if (c < 'а' || c > 'я') {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean isLatin(String word) {
+        for (int i = 0; i < word.length(); i++) {
+            char c = word.charAt(i);
+            if (c < 'a' || c > 'z') {
+                return false;
+            }
+        }
+        return true;
+    }
+}
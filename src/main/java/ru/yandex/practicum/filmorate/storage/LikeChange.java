@@ -0,0 +1,6 @@
+package ru.yandex.practicum.filmorate.storage;
+
+import java.time.Instant;
+
+public record LikeChange(long filmId, long userId, boolean liked, Instant timestamp) {
+}
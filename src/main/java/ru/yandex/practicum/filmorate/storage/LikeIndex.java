@@ -0,0 +1,80 @@
+package ru.yandex.practicum.filmorate.storage;
+
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Разреженный индекс лайков в обе стороны: пользователь → фильмы и фильм → пользователи,
+ * id хранятся отсортированными массивами. Поддерживается вызовами из хранилищ и
+ * перестраивается из таблицы likes при старте приложения.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class LikeIndex {
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private final ConcurrentHashMap<Long, long[]> filmsByUser = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<Long, long[]> usersByFilm = new ConcurrentHashMap<>();
+
+    @PostConstruct
+    public void rebuild() {
+        filmsByUser.clear();
+        usersByFilm.clear();
+
+        AdjacencyCollector films = new AdjacencyCollector(filmsByUser);
+        jdbcTemplate.query("SELECT user_id, film_id FROM likes ORDER BY user_id, film_id",
+                (RowCallbackHandler) rs -> films.accept(rs.getLong("user_id"), rs.getLong("film_id")));
+        films.finish();
+
+        AdjacencyCollector users = new AdjacencyCollector(usersByFilm);
+        jdbcTemplate.query("SELECT film_id, user_id FROM likes ORDER BY film_id, user_id",
+                (RowCallbackHandler) rs -> users.accept(rs.getLong("film_id"), rs.getLong("user_id")));
+        users.finish();
+
+        log.info("Индекс лайков построен, пользователей: {}, фильмов: {}", filmsByUser.size(), usersByFilm.size());
+    }
+
+    public void addLike(long filmId, long userId) {
+        filmsByUser.compute(userId, (id, filmIds) -> LongArraySets.insert(filmIds, filmId));
+        usersByFilm.compute(filmId, (id, userIds) -> LongArraySets.insert(userIds, userId));
+    }
+
+    public void removeLike(long filmId, long userId) {
+        filmsByUser.computeIfPresent(userId, (id, filmIds) -> LongArraySets.remove(filmIds, filmId));
+        usersByFilm.computeIfPresent(filmId, (id, userIds) -> LongArraySets.remove(userIds, userId));
+    }
+
+    public void removeFilm(long filmId) {
+        long[] userIds = usersByFilm.remove(filmId);
+        if (userIds != null) {
+            for (long userId : userIds) {
+                filmsByUser.computeIfPresent(userId, (id, filmIds) -> LongArraySets.remove(filmIds, filmId));
+            }
+        }
+    }
+
+    public void removeUser(long userId) {
+        long[] filmIds = filmsByUser.remove(userId);
+        if (filmIds != null) {
+            for (long filmId : filmIds) {
+                usersByFilm.computeIfPresent(filmId, (id, userIds) -> LongArraySets.remove(userIds, userId));
+            }
+        }
+    }
+
+    public long[] getFilmIds(long userId) {
+        return filmsByUser.getOrDefault(userId, LongArraySets.EMPTY);
+    }
+
+    public long[] getUserIds(long filmId) {
+        return usersByFilm.getOrDefault(filmId, LongArraySets.EMPTY);
+    }
+}
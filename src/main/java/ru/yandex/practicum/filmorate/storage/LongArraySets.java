@@ -0,0 +1,87 @@
+package ru.yandex.practicum.filmorate.storage;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Операции над множествами идентификаторов, хранимыми как отсортированные массивы {@code long[]}.
+ * Массивы не изменяются на месте: вставка и удаление возвращают новую копию.
+ */
+public final class LongArraySets {
+
+    public static final long[] EMPTY = new long[0];
+
+    private LongArraySets() {
+    }
+
+    public static long[] insert(long[] set, long value) {
+        if (set == null) {
+            return new long[]{value};
+        }
+        int position = Arrays.binarySearch(set, value);
+        if (position >= 0) {
+            return set;
+        }
+        int insertAt = -position - 1;
+        long[] result = new long[set.length + 1];
+        System.arraycopy(set, 0, result, 0, insertAt);
+        result[insertAt] = value;
+        System.arraycopy(set, insertAt, result, insertAt + 1, set.length - insertAt);
+        return result;
+    }
+
+    public static long[] remove(long[] set, long value) {
+        if (set == null) {
+            return null;
+        }
+        int position = Arrays.binarySearch(set, value);
+        if (position < 0) {
+            return set;
+        }
+        if (set.length == 1) {
+            return null;
+        }
+        long[] result = new long[set.length - 1];
+        System.arraycopy(set, 0, result, 0, position);
+        System.arraycopy(set, position + 1, result, position, set.length - position - 1);
+        return result;
+    }
+
+    public static boolean contains(long[] set, long value) {
+        return set != null && Arrays.binarySearch(set, value) >= 0;
+    }
+
+    public static long[] intersect(long[] first, long[] second) {
+        if (first == null || second == null) {
+            return EMPTY;
+        }
+        long[] result = new long[Math.min(first.length, second.length)];
+        int size = 0;
+        int i = 0;
+        int j = 0;
+        while (i < first.length && j < second.length) {
+            if (first[i] < second[j]) {
+                i++;
+            } else if (first[i] > second[j]) {
+                j++;
+            } else {
+                result[size++] = first[i];
+                i++;
+                j++;
+            }
+        }
+        return size == result.length ? result : Arrays.copyOf(result, size);
+    }
+
+    public static List<Long> toList(long[] set) {
+        if (set == null) {
+            return List.of();
+        }
+        List<Long> result = new ArrayList<>(set.length);
+        for (long value : set) {
+            result.add(value);
+        }
+        return result;
+    }
+}
@@ -0,0 +1,175 @@
+package ru.yandex.practicum.filmorate.storage;
+
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Счетчик вхождений {@code long}-идентификаторов на открытой адресации без упаковки в Long:
+ * например, число общих друзей по кандидатам. Не потокобезопасен; параллельный подсчет -
+ * {@link #countAll(List, ForkJoinPool)}.
+ */
+public final class LongCounter {
+
+    private static final long EMPTY_KEY = 0;
+    // Столько id одна задача считает сама; меньшие объемы быстрее посчитать, не передавая в пул
+    private static final long PARALLEL_THRESHOLD = 1 << 15;
+    // Сумма длин массивов - оценка сверху числа разных id; дальше счетчик растет сам
+    private static final int MAX_PRESIZE = 1 << 20;
+
+    private long[] keys;
+    private int[] counts;
+    private int size;
+    // Ключ 0 совпадает с признаком пустой ячейки, поэтому считается отдельно
+    private int zeroCount;
+
+    public LongCounter(int expectedSize) {
+        int capacity = Integer.highestOneBit(Math.max(4, Math.min(expectedSize, 1 << 29)) * 2 - 1) << 1;
+        keys = new long[capacity];
+        counts = new int[capacity];
+    }
+
+    /**
+     * Считает вхождения id во всех массивах. Большие объемы делятся между потоками пула: каждая
+     * задача считает свою часть массивов в отдельный счетчик, затем счетчики сливаются попарно.
+     */
+    public static LongCounter countAll(List<long[]> arrays, ForkJoinPool pool) {
+        long[] offsets = new long[arrays.size() + 1];
+        for (int i = 0; i < arrays.size(); i++) {
+            offsets[i + 1] = offsets[i] + arrays.get(i).length;
+        }
+        CountTask task = new CountTask(arrays, offsets, 0, arrays.size());
+        return offsets[arrays.size()] <= PARALLEL_THRESHOLD ? task.compute() : pool.invoke(task);
+    }
+
+    public void increment(long key) {
+        add(key, 1);
+    }
+
+    public void add(long key, int count) {
+        if (key == EMPTY_KEY) {
+            if (zeroCount == 0) {
+                size++;
+            }
+            zeroCount += count;
+            return;
+        }
+        int mask = keys.length - 1;
+        int slot = mix(key) & mask;
+        while (keys[slot] != EMPTY_KEY) {
+            if (keys[slot] == key) {
+                counts[slot] += count;
+                return;
+            }
+            slot = (slot + 1) & mask;
+        }
+        keys[slot] = key;
+        counts[slot] = count;
+        if (++size * 2 > keys.length) {
+            grow();
+        }
+    }
+
+    public int get(long key) {
+        if (key == EMPTY_KEY) {
+            return zeroCount;
+        }
+        int mask = keys.length - 1;
+        int slot = mix(key) & mask;
+        while (keys[slot] != EMPTY_KEY) {
+            if (keys[slot] == key) {
+                return counts[slot];
+            }
+            slot = (slot + 1) & mask;
+        }
+        return 0;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public void forEach(Consumer action) {
+        if (zeroCount > 0) {
+            action.accept(EMPTY_KEY, zeroCount);
+        }
+        for (int slot = 0; slot < keys.length; slot++) {
+            if (keys[slot] != EMPTY_KEY) {
+                action.accept(keys[slot], counts[slot]);
+            }
+        }
+    }
+
+    private void grow() {
+        long[] oldKeys = keys;
+        int[] oldCounts = counts;
+        keys = new long[oldKeys.length * 2];
+        counts = new int[oldCounts.length * 2];
+        int mask = keys.length - 1;
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] != EMPTY_KEY) {
+                int slot = mix(oldKeys[i]) & mask;
+                while (keys[slot] != EMPTY_KEY) {
+                    slot = (slot + 1) & mask;
+                }
+                keys[slot] = oldKeys[i];
+                counts[slot] = oldCounts[i];
+            }
+        }
+    }
+
+    // Последовательные id иначе легли бы в соседние ячейки длинными сериями
+    private static int mix(long key) {
+        long hash = key * 0x9E3779B97F4A7C15L;
+        return (int) (hash ^ (hash >>> 32));
+    }
+
+    private static final class CountTask extends RecursiveTask<LongCounter> {
+
+        private final List<long[]> arrays;
+        // offsets[i] - сколько id во всех массивах до i-го
+        private final long[] offsets;
+        private final int from;
+        private final int to;
+
+        CountTask(List<long[]> arrays, long[] offsets, int from, int to) {
+            this.arrays = arrays;
+            this.offsets = offsets;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected LongCounter compute() {
+            long work = offsets[to] - offsets[from];
+            if (to - from < 2 || work <= PARALLEL_THRESHOLD) {
+                LongCounter counter = new LongCounter((int) Math.min(work, MAX_PRESIZE));
+                for (int i = from; i < to; i++) {
+                    for (long key : arrays.get(i)) {
+                        counter.increment(key);
+                    }
+                }
+                return counter;
+            }
+            // Делим по числу id, а не по числу массивов: длины списков сильно разнятся
+            int split = from + 1;
+            long half = offsets[from] + work / 2;
+            while (split < to - 1 && offsets[split + 1] <= half) {
+                split++;
+            }
+            CountTask left = new CountTask(arrays, offsets, from, split);
+            left.fork();
+            LongCounter right = new CountTask(arrays, offsets, split, to).compute();
+            LongCounter merged = left.join();
+            LongCounter smaller = merged.size < right.size ? merged : right;
+            LongCounter larger = smaller == merged ? right : merged;
+            smaller.forEach(larger::add);
+            return larger;
+        }
+    }
+
+    @FunctionalInterface
+    public interface Consumer {
+        void accept(long key, int count);
+    }
+}
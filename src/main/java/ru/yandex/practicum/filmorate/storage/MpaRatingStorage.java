@@ -9,4 +9,11 @@ public interface MpaRatingStorage {
     Optional<MpaRating> getMpaRatingById(Long id);
 
     Collection<MpaRating> getAllMpaRatings();
+
+    /**
+     * Версия справочника, меняется при каждом его изменении.
+     */
+    default long getVersion() {
+        return 0;
+    }
 }
\ No newline at end of file
@@ -0,0 +1,294 @@
+package ru.yandex.practicum.filmorate.storage;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.User;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Копия фильмов, пользователей и списков друзей в памяти для тяжелых читающих запросов.
+ * Хранилища публикуют {@link StorageChangeEvent} после коммита, отдельный поток перечитывает
+ * изменившиеся записи из БД и подменяет их здесь. Пока самое старое неприменённое событие
+ * не старше {@code max-staleness}, чтения обслуживаются отсюда, иначе методы возвращают пустой
+ * {@link Optional}, и вызывающий идет в хранилище. Очередь событий ограничена {@code max-pending}:
+ * при переполнении она очищается, и модель целиком перезагружается из БД. Выключено по умолчанию.
+ * Отдаваемые объекты общие для всех запросов, менять их нельзя.
+ */
+@Component
+@Slf4j
+public class ReadModel {
+
+    private static final int MAX_BATCH_SIZE = 1000;
+    private static final long RETRY_DELAY_MILLIS = 100;
+
+    private final FilmStorage filmStorage;
+    private final UserStorage userStorage;
+    private final FriendshipStorage friendshipStorage;
+    private final FilmPopularityIndex popularityIndex;
+    private final boolean enabled;
+    private final long maxStalenessNanos;
+    private final boolean virtualThreads;
+
+    private final ConcurrentSkipListMap<Long, Film> films = new ConcurrentSkipListMap<>();
+    private final ConcurrentSkipListMap<Long, User> users = new ConcurrentSkipListMap<>();
+    private final ConcurrentHashMap<Long, long[]> friends = new ConcurrentHashMap<>();
+    private final BlockingQueue<PendingChange> pending;
+    // Очередь сбрасывается и флаг ставится/снимается только под этой блокировкой, иначе можно
+    // очистить события, пришедшие уже после начала перезагрузки
+    private final Object reloadLock = new Object();
+    private volatile boolean reloadRequested;
+    // Время постановки самого старого события из пакета, который сейчас применяется; 0 — пакета нет
+    private volatile long applyingSince;
+    private volatile boolean loaded;
+    private Thread applier;
+
+    public ReadModel(FilmStorage filmStorage, UserStorage userStorage, FriendshipStorage friendshipStorage,
+                     FilmPopularityIndex popularityIndex,
+                     @Value("${filmorate.read-model.enabled:false}") boolean enabled,
+                     @Value("${filmorate.read-model.max-staleness:1s}") Duration maxStaleness,
+                     @Value("${filmorate.read-model.max-pending:100000}") int maxPending,
+                     @Value("${spring.threads.virtual.enabled:false}") boolean virtualThreads) {
+        this.filmStorage = filmStorage;
+        this.userStorage = userStorage;
+        this.friendshipStorage = friendshipStorage;
+        this.popularityIndex = popularityIndex;
+        this.enabled = enabled;
+        this.maxStalenessNanos = maxStaleness.toNanos();
+        this.pending = new LinkedBlockingQueue<>(maxPending);
+        this.virtualThreads = virtualThreads;
+    }
+
+    /**
+     * Загрузка после старта контекста: события, пришедшие во время нее, уже копятся в очереди
+     * и будут применены следом.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (!enabled) {
+            return;
+        }
+        Thread.Builder builder = virtualThreads ? Thread.ofVirtual() : Thread.ofPlatform().daemon(true);
+        applier = builder.name("read-model-applier").start(this::run);
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        if (applier != null) {
+            applier.interrupt();
+            applier.join(TimeUnit.SECONDS.toMillis(5));
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onStorageChange(StorageChangeEvent event) {
+        if (!enabled) {
+            return;
+        }
+        PendingChange change = new PendingChange(event, System.nanoTime());
+        if (!pending.offer(change)) {
+            synchronized (reloadLock) {
+                if (!reloadRequested) {
+                    log.warn("Очередь модели чтения переполнена, модель будет перезагружена целиком");
+                }
+                reloadRequested = true;
+                pending.clear();
+                // Будит поток применения; само событие перезагрузка все равно учтет
+                pending.offer(change);
+            }
+        }
+    }
+
+    public Optional<Collection<Film>> findAllFilms() {
+        if (!isServing()) {
+            return Optional.empty();
+        }
+        return Optional.of(List.copyOf(films.values()));
+    }
+
+    public Optional<Collection<Film>> getPopularFilms(int count, Long genreId, Integer year) {
+        if (!isServing()) {
+            return Optional.empty();
+        }
+        List<Long> filmIds = popularityIndex.getTopFilmIds(count, genreId, year);
+        List<Film> result = new ArrayList<>(filmIds.size());
+        for (Long filmId : filmIds) {
+            Film film = films.get(filmId);
+            if (film != null) {
+                result.add(film);
+            }
+        }
+        return Optional.of(result);
+    }
+
+    public Optional<List<User>> getFriends(long userId) {
+        if (!isServing()) {
+            return Optional.empty();
+        }
+        long[] friendIds = friends.getOrDefault(userId, LongArraySets.EMPTY);
+        List<User> result = new ArrayList<>(friendIds.length);
+        for (long friendId : friendIds) {
+            User friend = users.get(friendId);
+            if (friend != null) {
+                result.add(friend);
+            }
+        }
+        return Optional.of(result);
+    }
+
+    /**
+     * Можно ли сейчас читать из модели: она загружена и отстает от БД не больше чем на {@code max-staleness}.
+     */
+    public boolean isServing() {
+        if (!loaded || reloadRequested) {
+            return false;
+        }
+        long now = System.nanoTime();
+        long since = applyingSince;
+        if (since != 0 && now - since > maxStalenessNanos) {
+            return false;
+        }
+        PendingChange oldest = pending.peek();
+        return oldest == null || now - oldest.enqueuedAt() <= maxStalenessNanos;
+    }
+
+    private void run() {
+        try {
+            load();
+            List<PendingChange> batch = new ArrayList<>(MAX_BATCH_SIZE);
+            while (!Thread.currentThread().isInterrupted()) {
+                PendingChange first = pending.take();
+                applyingSince = first.enqueuedAt();
+                batch.add(first);
+                pending.drainTo(batch, MAX_BATCH_SIZE - 1);
+                if (takeReloadRequest()) {
+                    reload();
+                } else {
+                    applyWithRetry(batch);
+                }
+                batch.clear();
+                applyingSince = 0;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private boolean takeReloadRequest() {
+        synchronized (reloadLock) {
+            if (!reloadRequested) {
+                return false;
+            }
+            // Все, что закоммичено до этого момента, перезагрузка прочитает из БД
+            pending.clear();
+            reloadRequested = false;
+            return true;
+        }
+    }
+
+    private void reload() throws InterruptedException {
+        loaded = false;
+        films.clear();
+        users.clear();
+        friends.clear();
+        load();
+    }
+
+    private void load() throws InterruptedException {
+        while (true) {
+            try {
+                long started = System.nanoTime();
+                filmStorage.forEachFilm(film -> films.put(film.getId(), film));
+                userStorage.forEachUser(user -> users.put(user.getId(), user));
+                friends.putAll(friendshipStorage.getFriendIdsOf(users.keySet()));
+                loaded = true;
+                log.info("Модель чтения загружена за {} мс: фильмов {}, пользователей {}",
+                        TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started), films.size(), users.size());
+                return;
+            } catch (RuntimeException e) {
+                log.error("Не удалось загрузить модель чтения, повтор через {} мс", RETRY_DELAY_MILLIS, e);
+                Thread.sleep(RETRY_DELAY_MILLIS);
+            }
+        }
+    }
+
+    private void applyWithRetry(List<PendingChange> batch) throws InterruptedException {
+        while (true) {
+            try {
+                apply(batch);
+                return;
+            } catch (RuntimeException e) {
+                // Пока пакет не применен, отставание растет, и чтения уходят в хранилища
+                log.error("Не удалось применить изменения к модели чтения, повтор через {} мс",
+                        RETRY_DELAY_MILLIS, e);
+                Thread.sleep(RETRY_DELAY_MILLIS);
+            }
+        }
+    }
+
+    private void apply(List<PendingChange> batch) {
+        Map<StorageChangeEvent.Entity, Set<Long>> changed = new HashMap<>();
+        for (PendingChange change : batch) {
+            changed.computeIfAbsent(change.event().entity(), entity -> new LinkedHashSet<>())
+                    .add(change.event().id());
+        }
+
+        Set<Long> filmIds = changed.getOrDefault(StorageChangeEvent.Entity.FILM, Set.of());
+        if (!filmIds.isEmpty()) {
+            Map<Long, Film> reloaded = new HashMap<>();
+            filmStorage.getFilmsByIds(List.copyOf(filmIds)).forEach(film -> reloaded.put(film.getId(), film));
+            filmIds.forEach(id -> replace(films, id, reloaded.get(id)));
+        }
+
+        // Вместе со списком друзей меняется и их число в самом пользователе
+        Set<Long> userIds = new LinkedHashSet<>(changed.getOrDefault(StorageChangeEvent.Entity.USER, Set.of()));
+        userIds.addAll(changed.getOrDefault(StorageChangeEvent.Entity.FRIENDS, Set.of()));
+        if (!userIds.isEmpty()) {
+            Map<Long, User> reloaded = new HashMap<>();
+            userStorage.getUsersByIds(List.copyOf(userIds)).forEach(user -> reloaded.put(user.getId(), user));
+            userIds.forEach(id -> {
+                User user = reloaded.get(id);
+                replace(users, id, user);
+                if (user == null) {
+                    friends.remove(id);
+                }
+            });
+        }
+
+        Set<Long> friendsOf = changed.getOrDefault(StorageChangeEvent.Entity.FRIENDS, Set.of());
+        if (!friendsOf.isEmpty()) {
+            Map<Long, long[]> reloaded = friendshipStorage.getFriendIdsOf(friendsOf);
+            friendsOf.forEach(id -> replace(friends, id, reloaded.get(id)));
+        }
+    }
+
+    private static <V> void replace(Map<Long, V> map, Long id, V value) {
+        if (value == null) {
+            map.remove(id);
+        } else {
+            map.put(id, value);
+        }
+    }
+
+    private record PendingChange(StorageChangeEvent event, long enqueuedAt) {
+    }
+}
@@ -0,0 +1,23 @@
+package ru.yandex.practicum.filmorate.storage;
+
+/**
+ * Публикуется хранилищами после изменения данных. Несет только id: получатель сам перечитывает
+ * актуальное состояние, поэтому повторные и переставленные события безвредны.
+ */
+public record StorageChangeEvent(Entity entity, long id) {
+
+    public enum Entity {
+        /**
+         * Фильм создан, изменен или удален.
+         */
+        FILM,
+        /**
+         * Пользователь создан, изменен или удален.
+         */
+        USER,
+        /**
+         * Изменился список друзей пользователя.
+         */
+        FRIENDS
+    }
+}
@@ -0,0 +1,189 @@
+package ru.yandex.practicum.filmorate.storage;
+
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.sql.Timestamp;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.LongPredicate;
+
+/**
+ * Лайки фильмов за скользящее окно: для каждого фильма кольцевой буфер почасовых счетчиков
+ * длиной {@code filmorate.films.trending.max-window}. Ячейка помечена номером часа, поэтому
+ * устаревшие счетчики не учитываются и перезаписываются сами, а планировщик раз в час
+ * убирает фильмы без лайков в окне. Точность окна — один час.
+ */
+@Component
+@Slf4j
+public class TrendingIndex {
+
+    private static final long MILLIS_PER_HOUR = Duration.ofHours(1).toMillis();
+
+    private static final Comparator<Ranked> WORST_FIRST = Comparator.comparingLong(Ranked::likes)
+            .thenComparing(Comparator.comparingLong(Ranked::filmId).reversed());
+
+    private final JdbcTemplate jdbcTemplate;
+    private final Clock clock;
+    private final int bucketCount;
+
+    private final ConcurrentHashMap<Long, HourlyBuckets> bucketsByFilm = new ConcurrentHashMap<>();
+
+    @Autowired
+    public TrendingIndex(JdbcTemplate jdbcTemplate,
+                         @Value("${filmorate.films.trending.max-window:7d}") Duration maxWindow) {
+        this(jdbcTemplate, maxWindow, Clock.systemUTC());
+    }
+
+    TrendingIndex(JdbcTemplate jdbcTemplate, Duration maxWindow, Clock clock) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.clock = clock;
+        this.bucketCount = (int) Math.max(1, maxWindow.toHours());
+    }
+
+    @PostConstruct
+    public void rebuild() {
+        bucketsByFilm.clear();
+        long currentHour = currentHour();
+        Timestamp from = new Timestamp((currentHour - bucketCount + 1) * MILLIS_PER_HOUR);
+        jdbcTemplate.query("SELECT film_id, like_timestamp FROM likes WHERE like_timestamp >= ?",
+                (RowCallbackHandler) rs -> add(rs.getLong("film_id"), rs.getTimestamp("like_timestamp").toInstant(),
+                        1, currentHour), from);
+        log.info("Индекс трендов построен, фильмов с лайками в окне: {}", bucketsByFilm.size());
+    }
+
+    public void addLike(long filmId, Instant likedAt) {
+        add(filmId, likedAt, 1, currentHour());
+    }
+
+    public void removeLike(long filmId, Instant likedAt) {
+        add(filmId, likedAt, -1, currentHour());
+    }
+
+    public void removeFilm(long filmId) {
+        bucketsByFilm.remove(filmId);
+    }
+
+    /**
+     * Id фильмов с наибольшим числом лайков за последние {@code window}, по убыванию,
+     * среди фильмов, подходящих под {@code filter}.
+     */
+    public List<Long> getTopFilmIds(int count, Duration window, LongPredicate filter) {
+        if (count <= 0) {
+            return List.of();
+        }
+        long currentHour = currentHour();
+        long windowHours = Math.min(bucketCount, Math.max(1, window.toHours()));
+
+        PriorityQueue<Ranked> top = new PriorityQueue<>(count + 1, WORST_FIRST);
+        bucketsByFilm.forEach((filmId, buckets) -> {
+            if (!filter.test(filmId)) {
+                return;
+            }
+            long likes = buckets.sum(currentHour, windowHours);
+            if (likes == 0) {
+                return;
+            }
+            Ranked candidate = new Ranked(filmId, likes);
+            if (top.size() < count) {
+                top.add(candidate);
+            } else if (WORST_FIRST.compare(candidate, top.peek()) > 0) {
+                top.poll();
+                top.add(candidate);
+            }
+        });
+
+        List<Ranked> ranked = new ArrayList<>(top);
+        ranked.sort(WORST_FIRST.reversed());
+        return ranked.stream().map(Ranked::filmId).toList();
+    }
+
+    @Scheduled(fixedRateString = "${filmorate.films.trending.cleanup-interval:PT1H}",
+            initialDelayString = "${filmorate.films.trending.cleanup-interval:PT1H}")
+    public void evictExpired() {
+        long currentHour = currentHour();
+        bucketsByFilm.keySet().forEach(filmId -> bucketsByFilm.computeIfPresent(filmId,
+                (id, buckets) -> buckets.isEmpty(currentHour) ? null : buckets));
+        log.debug("Индекс трендов очищен, фильмов с лайками в окне: {}", bucketsByFilm.size());
+    }
+
+    private void add(long filmId, Instant likedAt, int delta, long currentHour) {
+        long hour = likedAt.toEpochMilli() / MILLIS_PER_HOUR;
+        if (hour <= currentHour - bucketCount) {
+            return;
+        }
+        if (delta > 0) {
+            bucketsByFilm.compute(filmId, (id, buckets) -> {
+                HourlyBuckets target = buckets != null ? buckets : new HourlyBuckets(bucketCount);
+                target.add(hour, delta);
+                return target;
+            });
+        } else {
+            bucketsByFilm.computeIfPresent(filmId, (id, buckets) -> {
+                buckets.add(hour, delta);
+                return buckets;
+            });
+        }
+    }
+
+    private long currentHour() {
+        return clock.millis() / MILLIS_PER_HOUR;
+    }
+
+    private static final class HourlyBuckets {
+
+        private final long[] hours;
+        private final int[] counts;
+
+        HourlyBuckets(int size) {
+            hours = new long[size];
+            counts = new int[size];
+        }
+
+        synchronized void add(long hour, int delta) {
+            int slot = (int) (hour % hours.length);
+            if (hours[slot] != hour) {
+                if (delta < 0) {
+                    return;
+                }
+                hours[slot] = hour;
+                counts[slot] = 0;
+            }
+            counts[slot] = Math.max(0, counts[slot] + delta);
+        }
+
+        synchronized long sum(long currentHour, long windowHours) {
+            long total = 0;
+            for (int i = 0; i < hours.length; i++) {
+                if (hours[i] > currentHour - windowHours && hours[i] <= currentHour) {
+                    total += counts[i];
+                }
+            }
+            return total;
+        }
+
+        synchronized boolean isEmpty(long currentHour) {
+            for (int i = 0; i < hours.length; i++) {
+                if (hours[i] > currentHour - hours.length && counts[i] > 0) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+
+    private record Ranked(long filmId, long likes) {
+    }
+}
@@ -1,24 +1,35 @@
 package ru.yandex.practicum.filmorate.storage;
 
+import jakarta.annotation.PostConstruct;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.context.annotation.Primary;
 import org.springframework.dao.DuplicateKeyException;
 import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
 import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
 import org.springframework.jdbc.support.GeneratedKeyHolder;
 import org.springframework.jdbc.support.KeyHolder;
 import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
 import ru.yandex.practicum.filmorate.exception.DuplicatedDataException;
 import ru.yandex.practicum.filmorate.exception.UserNotFoundException;
 import ru.yandex.practicum.filmorate.model.User;
 
 import java.sql.Date;
 import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Timestamp;
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
+import java.util.function.Consumer;
 
 @Component
 @Qualifier("userDbStorage")
@@ -27,7 +38,19 @@ import java.util.Objects;
 @Primary
 public class UserDbStorage implements UserStorage {
 
+    private static final int IN_CLAUSE_BATCH_SIZE = 1000;
+    private static final int EXPORT_FETCH_SIZE = 1000;
+    private static final String USER_COLUMNS = "user_id, email, login, name, birthday, friend_count";
+
     private final JdbcTemplate jdbcTemplate;
+    private final NamedParameterJdbcTemplate namedParameterJdbcTemplate;
+    private final FilmPopularityIndex popularityIndex;
+    private final LikeIndex likeIndex;
+    private final TrendingIndex trendingIndex;
+    private final ApplicationEventPublisher eventPublisher;
+    private final FilmCache filmCache;
+    private final TransactionTemplate transactionTemplate;
+    private final IdBitmap userIds = new IdBitmap();
 
     private final RowMapper<User> userRowMapper = (rs, rowNum) -> {
         User user = new User();
@@ -36,15 +59,43 @@ public class UserDbStorage implements UserStorage {
         user.setLogin(rs.getString("login"));
         user.setName(rs.getString("name"));
         user.setBirthday(rs.getDate("birthday").toLocalDate());
+        user.setFriendCount(rs.getInt("friend_count"));
         return user;
     };
 
+    @PostConstruct
+    public void loadUserIds() {
+        userIds.clear();
+        jdbcTemplate.query("SELECT user_id FROM users", rs -> {
+            userIds.add(rs.getLong("user_id"));
+        });
+        log.info("Загружены идентификаторы пользователей: {}", userIds.size());
+    }
+
     @Override
     public Collection<User> findAllUsers() {
-        String sql = "SELECT user_id, email, login, name, birthday FROM users";
+        String sql = "SELECT " + USER_COLUMNS + " FROM users";
         return jdbcTemplate.query(sql, userRowMapper);
     }
 
+    @Override
+    public List<User> findUsersAfter(long afterId, int limit) {
+        String sql = "SELECT " + USER_COLUMNS + " FROM users " +
+                "WHERE user_id > ? ORDER BY user_id LIMIT ?";
+        return jdbcTemplate.query(sql, userRowMapper, afterId, limit);
+    }
+
+    @Override
+    public void forEachUser(Consumer<User> action) {
+        String sql = "SELECT " + USER_COLUMNS + " FROM users ORDER BY user_id";
+        jdbcTemplate.query(connection -> {
+            PreparedStatement ps = connection.prepareStatement(sql, ResultSet.TYPE_FORWARD_ONLY,
+                    ResultSet.CONCUR_READ_ONLY);
+            ps.setFetchSize(EXPORT_FETCH_SIZE);
+            return ps;
+        }, (RowCallbackHandler) rs -> action.accept(userRowMapper.mapRow(rs, rs.getRow())));
+    }
+
     @Override
     public User createUser(User user) {
         String sql = "INSERT INTO users (email, login, name, birthday) VALUES (?, ?, ?, ?)";
@@ -65,6 +116,8 @@ public class UserDbStorage implements UserStorage {
         }
 
         user.setId(Objects.requireNonNull(keyHolder.getKey()).longValue());
+        userIds.add(user.getId());
+        eventPublisher.publishEvent(new StorageChangeEvent(StorageChangeEvent.Entity.USER, user.getId()));
         log.info("Пользователь с id {} успешно создан", user.getId());
         return user;
     }
@@ -84,13 +137,14 @@ public class UserDbStorage implements UserStorage {
             log.warn("Пользователь с id {} не найден", newUser.getId());
             throw new UserNotFoundException("Пользователь с id " + newUser.getId() + " не найден.");
         }
+        eventPublisher.publishEvent(new StorageChangeEvent(StorageChangeEvent.Entity.USER, newUser.getId()));
         log.info("Пользователь с id {} успешно обновлен", newUser.getId());
         return getUserById(newUser.getId());
     }
 
     @Override
     public User getUserById(Long id) {
-        String sql = "SELECT user_id, email, login, name, birthday FROM users WHERE user_id = ?";
+        String sql = "SELECT " + USER_COLUMNS + " FROM users WHERE user_id = ?";
 
         List<User> users = jdbcTemplate.query(sql, userRowMapper, id);
 
@@ -101,15 +155,80 @@ public class UserDbStorage implements UserStorage {
         return users.get(0);
     }
 
+    @Override
+    public boolean existsById(Long id) {
+        return userIds.contains(id);
+    }
+
+    @Override
+    public List<User> getUsersByIds(List<Long> ids) {
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+
+        String sql = "SELECT " + USER_COLUMNS + " FROM users WHERE user_id IN (:ids)";
+        Map<Long, User> usersById = new HashMap<>(ids.size());
+        for (int from = 0; from < ids.size(); from += IN_CLAUSE_BATCH_SIZE) {
+            List<Long> batch = ids.subList(from, Math.min(from + IN_CLAUSE_BATCH_SIZE, ids.size()));
+            namedParameterJdbcTemplate.query(sql, Map.of("ids", batch), userRowMapper)
+                    .forEach(user -> usersById.put(user.getId(), user));
+        }
+
+        List<User> users = new ArrayList<>(ids.size());
+        for (Long id : ids) {
+            User user = usersById.get(id);
+            if (user != null) {
+                users.add(user);
+            }
+        }
+        return users;
+    }
+
     @Override
     public void deleteUser(Long id) {
+        // Лайки и дружбы пользователя удаляются каскадно, поэтому заранее запоминаем,
+        // у каких фильмов снять лайки и у кого из пользователей уменьшить число друзей
+        Map<Long, Timestamp> likedFilms = new HashMap<>();
+        List<Long> friendOf = new ArrayList<>();
         String sql = "DELETE FROM users WHERE user_id = ?";
-        int rowsAffected = jdbcTemplate.update(sql, id);
+        int rowsAffected = Objects.requireNonNull(transactionTemplate.execute(status -> {
+            jdbcTemplate.query("SELECT film_id, like_timestamp FROM likes WHERE user_id = ?",
+                    (RowCallbackHandler) rs -> likedFilms.put(rs.getLong("film_id"),
+                            rs.getTimestamp("like_timestamp")),
+                    id);
+            friendOf.addAll(jdbcTemplate.queryForList("SELECT user_id FROM friends WHERE friend_id = ? " +
+                    "ORDER BY user_id", Long.class, id));
+
+            int deleted = jdbcTemplate.update(sql, id);
+            if (deleted > 0 && !likedFilms.isEmpty()) {
+                List<Long> filmIds = likedFilms.keySet().stream().sorted().toList();
+                jdbcTemplate.batchUpdate("UPDATE films SET like_count = like_count - 1 WHERE id = ?", filmIds,
+                        filmIds.size(), (ps, filmId) -> ps.setLong(1, filmId));
+            }
+            if (deleted > 0 && !friendOf.isEmpty()) {
+                jdbcTemplate.batchUpdate("UPDATE users SET friend_count = friend_count - 1 WHERE user_id = ?",
+                        friendOf, friendOf.size(), (ps, userId) -> ps.setLong(1, userId));
+            }
+            return deleted;
+        }));
 
         if (rowsAffected == 0) {
             log.warn("Пользователь с id {} не найден", id);
             throw new UserNotFoundException("Пользователь с id " + id + " не найден.");
         }
+        userIds.remove(id);
+        likedFilms.forEach((filmId, likedAt) -> {
+            filmCache.invalidate(filmId);
+            eventPublisher.publishEvent(new StorageChangeEvent(StorageChangeEvent.Entity.FILM, filmId));
+            popularityIndex.decrementLikes(filmId);
+            if (likedAt != null) {
+                trendingIndex.removeLike(filmId, likedAt.toInstant());
+            }
+        });
+        likeIndex.removeUser(id);
+        eventPublisher.publishEvent(new StorageChangeEvent(StorageChangeEvent.Entity.USER, id));
+        friendOf.forEach(userId ->
+                eventPublisher.publishEvent(new StorageChangeEvent(StorageChangeEvent.Entity.FRIENDS, userId)));
         log.info("Пользователь с id {} успешно удален", id);
     }
 }
\ No newline at end of file
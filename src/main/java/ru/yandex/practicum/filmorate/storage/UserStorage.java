@@ -4,15 +4,25 @@ import jakarta.validation.Valid;
 import ru.yandex.practicum.filmorate.model.User;
 
 import java.util.Collection;
+import java.util.List;
+import java.util.function.Consumer;
 
 public interface UserStorage {
     Collection<User> findAllUsers();
 
+    List<User> findUsersAfter(long afterId, int limit);
+
+    void forEachUser(Consumer<User> action);
+
     User createUser(@Valid User user);
 
     User updateUser(@Valid User user);
 
     User getUserById(Long id);
 
+    boolean existsById(Long id);
+
+    List<User> getUsersByIds(List<Long> ids);
+
     void deleteUser(Long id);
 }
\ No newline at end of file
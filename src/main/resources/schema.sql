@@ -17,7 +17,8 @@ CREATE TABLE films (
   description VARCHAR(1000),
   release_date DATE,
   duration INTEGER,
-  mpa_id INTEGER
+  mpa_id INTEGER,
+  like_count INTEGER NOT NULL DEFAULT 0
 );
 
 CREATE TABLE motion_picture_association (
@@ -30,7 +31,8 @@ CREATE TABLE users (
   email VARCHAR(255),
   login VARCHAR(255),
   name VARCHAR(255),
-  birthday DATE
+  birthday DATE,
+  friend_count INTEGER NOT NULL DEFAULT 0
 );
 
 CREATE TABLE film_genres (
@@ -61,4 +63,9 @@ ALTER TABLE likes ADD CONSTRAINT fk_likes_film_id FOREIGN KEY (film_id) REFERENC
 ALTER TABLE likes ADD CONSTRAINT fk_likes_user_id FOREIGN KEY (user_id) REFERENCES users (user_id) ON DELETE CASCADE;
 
 ALTER TABLE friends ADD CONSTRAINT fk_friends_user_id FOREIGN KEY (user_id) REFERENCES users (user_id) ON DELETE CASCADE;
-ALTER TABLE friends ADD CONSTRAINT fk_friends_friend_id FOREIGN KEY (friend_id) REFERENCES users (user_id) ON DELETE CASCADE;
\ No newline at end of file
+ALTER TABLE friends ADD CONSTRAINT fk_friends_friend_id FOREIGN KEY (friend_id) REFERENCES users (user_id) ON DELETE CASCADE;
+
+CREATE INDEX idx_friends_friend_id ON friends (friend_id);
+CREATE INDEX idx_film_genres_genre_id ON film_genres (genre_id);
+CREATE INDEX idx_likes_user_id ON likes (user_id);
+CREATE INDEX idx_films_release_date ON films (release_date);
\ No newline at end of file
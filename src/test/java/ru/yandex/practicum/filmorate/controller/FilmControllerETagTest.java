@@ -0,0 +1,107 @@
+package ru.yandex.practicum.filmorate.controller;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.MpaRating;
+import ru.yandex.practicum.filmorate.model.User;
+import ru.yandex.practicum.filmorate.storage.FilmStorage;
+import ru.yandex.practicum.filmorate.storage.UserStorage;
+
+import java.time.LocalDate;
+
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = "spring.datasource.url=jdbc:h2:mem:etags;DB_CLOSE_DELAY=-1;MODE=PostgreSQL")
+@AutoConfigureMockMvc
+class FilmControllerETagTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+    @Autowired
+    private FilmStorage filmStorage;
+    @Autowired
+    private UserStorage userStorage;
+
+    private long filmId;
+
+    @BeforeEach
+    void setUp() {
+        Film film = new Film();
+        film.setName("Сталкер");
+        film.setDescription("Описание");
+        film.setReleaseDate(LocalDate.of(1979, 5, 25));
+        film.setDuration(163);
+        MpaRating mpa = new MpaRating();
+        mpa.setId(2L);
+        film.setMpa(mpa);
+        filmId = filmStorage.create(film).getId();
+    }
+
+    @Test
+    void matchingTagGivesNotModifiedWithoutBody() throws Exception {
+        String etag = getFilm();
+
+        mockMvc.perform(get("/films/{id}", filmId).header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string(HttpHeaders.ETAG, etag))
+                .andExpect(content().string(""));
+    }
+
+    @Test
+    void updateChangesTag() throws Exception {
+        String etag = getFilm();
+
+        mockMvc.perform(put("/films")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("""
+                                {"id": %d, "name": "Сталкер (реставрация)", "description": "Описание",
+                                 "releaseDate": "1979-05-25", "duration": 163, "mpa": {"id": 2}}
+                                """.formatted(filmId)))
+                .andExpect(status().isOk());
+
+        String newEtag = mockMvc.perform(get("/films/{id}", filmId).header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.name").value("Сталкер (реставрация)"))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        assertNotEquals(etag, newEtag);
+    }
+
+    @Test
+    void likeChangesTag() throws Exception {
+        String etag = getFilm();
+        User user = new User();
+        user.setEmail("user@example.com");
+        user.setLogin("user");
+        user.setBirthday(LocalDate.of(1990, 1, 1));
+        long userId = userStorage.createUser(user).getId();
+
+        mockMvc.perform(put("/films/{id}/like/{userId}", filmId, userId))
+                .andExpect(status().isNoContent());
+
+        String newEtag = mockMvc.perform(get("/films/{id}", filmId).header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.likeCount").value(1))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        assertNotEquals(etag, newEtag);
+    }
+
+    private String getFilm() throws Exception {
+        return mockMvc.perform(get("/films/{id}", filmId))
+                .andExpect(status().isOk())
+                .andExpect(header().exists(HttpHeaders.ETAG))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+    }
+}
@@ -0,0 +1,38 @@
+package ru.yandex.practicum.filmorate.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import ru.yandex.practicum.filmorate.model.Film;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class NdjsonLineIteratorTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+
+    @Test
+    void continuesAfterMalformedLine() {
+        String body = """
+                {"name":"Матрица","duration":136}
+                {"name": broken
+
+                {"name":"Чужой","duration":"долго"}
+                {"name":"Брат","duration":100}
+                """;
+        NdjsonLineIterator<Film> films = new NdjsonLineIterator<>(
+                new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8)), objectMapper.readerFor(Film.class));
+
+        assertEquals("Матрица", films.next().getName());
+        assertThrows(IllegalArgumentException.class, films::next);
+        assertThrows(IllegalArgumentException.class, films::next);
+        assertTrue(films.hasNext());
+        assertEquals("Брат", films.next().getName());
+        assertFalse(films.hasNext());
+    }
+}
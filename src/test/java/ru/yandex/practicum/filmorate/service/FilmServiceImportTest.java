@@ -0,0 +1,166 @@
+package ru.yandex.practicum.filmorate.service;
+
+import jakarta.validation.Validation;
+import jakarta.validation.ValidatorFactory;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataIntegrityViolationException;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.FilmImportResult;
+import ru.yandex.practicum.filmorate.model.Genre;
+import ru.yandex.practicum.filmorate.model.ImportError;
+import ru.yandex.practicum.filmorate.model.MpaRating;
+import ru.yandex.practicum.filmorate.storage.FilmStorage;
+import ru.yandex.practicum.filmorate.storage.GenreStorage;
+import ru.yandex.practicum.filmorate.storage.MpaRatingStorage;
+import ru.yandex.practicum.filmorate.storage.ReadModel;
+import ru.yandex.practicum.filmorate.storage.UserStorage;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class FilmServiceImportTest {
+
+    private final FilmStorage filmStorage = mock(FilmStorage.class);
+    private final List<Film> saved = new ArrayList<>();
+    private final AtomicLong ids = new AtomicLong();
+    private ValidatorFactory validatorFactory;
+    private FilmService filmService;
+
+    @BeforeEach
+    void setUp() {
+        GenreStorage genreStorage = mock(GenreStorage.class);
+        when(genreStorage.getGenreById(any())).thenReturn(Optional.of(new Genre(1L, "Комедия")));
+        MpaRatingStorage mpaRatingStorage = mock(MpaRatingStorage.class);
+        when(mpaRatingStorage.getMpaRatingById(any())).thenReturn(Optional.of(new MpaRating()));
+
+        // Как и транзакция в FilmDbStorage.createFilms: пакет сохраняется целиком или не сохраняется
+        when(filmStorage.createFilms(anyList())).thenAnswer(invocation -> {
+            List<Film> films = invocation.getArgument(0);
+            if (films.stream().anyMatch(film -> film.getName().startsWith("bad"))) {
+                throw new DataIntegrityViolationException("constraint violation");
+            }
+            films.forEach(film -> film.setId(ids.incrementAndGet()));
+            saved.addAll(films);
+            return films;
+        });
+
+        validatorFactory = Validation.buildDefaultValidatorFactory();
+        filmService = new FilmService(filmStorage, mock(UserStorage.class), genreStorage, mpaRatingStorage,
+                validatorFactory.getValidator(), mock(LikeWriteBehindBuffer.class), mock(ReadModel.class),
+                Duration.ofDays(7));
+    }
+
+    @AfterEach
+    void tearDown() {
+        validatorFactory.close();
+    }
+
+    @Test
+    void reportsOnlyFailingRowsOfChunk() {
+        List<Film> films = List.of(film("a"), film("bad1"), film("b"), film("c"), film("bad2"), film("d"));
+
+        FilmImportResult result = filmService.importFilms(films.iterator());
+
+        assertEquals(6, result.getReceived());
+        assertEquals(4, result.getCreatedIds().size());
+        assertEquals(List.of(1, 4), result.getErrors().stream().map(ImportError::getIndex).toList());
+        assertEquals(List.of("a", "b", "c", "d"), saved.stream().map(Film::getName).toList());
+    }
+
+    @Test
+    void skipsUnparsableItemAndContinues() {
+        Iterator<Film> films = iterator(film("a"), new IllegalArgumentException("Некорректный JSON"), film("b"));
+
+        FilmImportResult result = filmService.importFilms(films);
+
+        assertEquals(3, result.getReceived());
+        assertEquals(2, result.getCreatedIds().size());
+        assertEquals(1, result.getErrors().size());
+        assertEquals(1, result.getErrors().get(0).getIndex());
+        assertEquals("Некорректный JSON", result.getErrors().get(0).getMessage());
+    }
+
+    @Test
+    void stopsOnReadFailureButKeepsSavedFilms() {
+        Iterator<Film> films = iterator(film("a"), new IllegalStateException("connection reset"), film("b"));
+
+        FilmImportResult result = filmService.importFilms(films);
+
+        assertEquals(1, result.getReceived());
+        assertEquals(1, result.getCreatedIds().size());
+        assertEquals(1, result.getErrors().size());
+        assertEquals(1, result.getErrors().get(0).getIndex());
+    }
+
+    @Test
+    void reportsValidationErrorsByIndex() {
+        Film noName = film("");
+        Film noMpa = film("x");
+        noMpa.setMpa(null);
+
+        FilmImportResult result = filmService.importFilms(List.of(noName, film("a"), noMpa).iterator());
+
+        assertEquals(List.of(0, 2), result.getErrors().stream().map(ImportError::getIndex).toList());
+        assertEquals(1, result.getCreatedIds().size());
+    }
+
+    @Test
+    void collapsesDuplicateGenreIds() {
+        Film film = film("a");
+        film.setGenres(Set.of(new Genre(1L, null), new Genre(1L, "Комедия"), new Genre(2L, null)));
+
+        filmService.importFilms(List.of(film).iterator());
+
+        assertEquals(2, saved.get(0).getGenres().size());
+    }
+
+    private static Film film(String name) {
+        Film film = new Film();
+        film.setName(name);
+        film.setReleaseDate(LocalDate.of(2000, 1, 1));
+        film.setDuration(100);
+        MpaRating mpa = new MpaRating();
+        mpa.setId(1L);
+        film.setMpa(mpa);
+        return film;
+    }
+
+    // Элемент-исключение бросается из next(), как это делает разбор NDJSON
+    private static Iterator<Film> iterator(Object... items) {
+        return new Iterator<>() {
+            private int position;
+
+            @Override
+            public boolean hasNext() {
+                return position < items.length;
+            }
+
+            @Override
+            public Film next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                Object item = items[position++];
+                if (item instanceof RuntimeException e) {
+                    throw e;
+                }
+                return (Film) item;
+            }
+        };
+    }
+}
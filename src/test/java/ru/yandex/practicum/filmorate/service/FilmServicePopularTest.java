@@ -0,0 +1,52 @@
+package ru.yandex.practicum.filmorate.service;
+
+import jakarta.validation.Validator;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import ru.yandex.practicum.filmorate.exception.ConditionsNotMetException;
+import ru.yandex.practicum.filmorate.storage.FilmStorage;
+import ru.yandex.practicum.filmorate.storage.GenreStorage;
+import ru.yandex.practicum.filmorate.storage.MpaRatingStorage;
+import ru.yandex.practicum.filmorate.storage.ReadModel;
+import ru.yandex.practicum.filmorate.storage.UserStorage;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+class FilmServicePopularTest {
+
+    private final FilmStorage filmStorage = mock(FilmStorage.class);
+    private final ReadModel readModel = mock(ReadModel.class);
+    private final FilmService filmService = new FilmService(filmStorage, mock(UserStorage.class),
+            mock(GenreStorage.class), mock(MpaRatingStorage.class), mock(Validator.class),
+            mock(LikeWriteBehindBuffer.class), readModel, Duration.ofDays(7));
+
+    @ParameterizedTest
+    @ValueSource(ints = {-1, 0, 1001, Integer.MAX_VALUE})
+    void countOutsideLimitsIsRejectedBeforeAnyLookup(int count) {
+        assertThrows(ConditionsNotMetException.class, () -> filmService.getPopularFilms(count, null, null));
+        assertThrows(ConditionsNotMetException.class, () -> filmService.getTrendingFilms(count, "24h", null, null));
+
+        verifyNoInteractions(readModel, filmStorage);
+    }
+
+    @Test
+    void countWithinLimitsFallsBackToStorage() {
+        when(readModel.getPopularFilms(anyInt(), any(), any())).thenReturn(Optional.empty());
+        when(filmStorage.getPopularFilms(1000, null, null)).thenReturn(List.of());
+
+        filmService.getPopularFilms(1000, null, null);
+
+        verify(filmStorage).getPopularFilms(1000, null, null);
+    }
+}
@@ -0,0 +1,79 @@
+package ru.yandex.practicum.filmorate.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import ru.yandex.practicum.filmorate.model.FriendSuggestion;
+import ru.yandex.practicum.filmorate.model.User;
+import ru.yandex.practicum.filmorate.storage.FriendshipStorage;
+import ru.yandex.practicum.filmorate.storage.StorageChangeEvent;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class FriendSuggestionServiceTest {
+
+    private final Map<Long, long[]> graph = new HashMap<>();
+    private final FriendshipStorage friendshipStorage = mock(FriendshipStorage.class);
+    private final UserService userService = mock(UserService.class);
+    private FriendSuggestionService service;
+
+    @BeforeEach
+    void setUp() {
+        graph.put(1L, new long[]{2, 3});
+        graph.put(2L, new long[]{1, 4, 5});
+        graph.put(3L, new long[]{4, 5, 6});
+        when(friendshipStorage.getFriendIdsOf(anyList())).thenAnswer(invocation -> {
+            Map<Long, long[]> result = new HashMap<>();
+            for (Long userId : invocation.<Collection<Long>>getArgument(0)) {
+                if (graph.containsKey(userId)) {
+                    result.put(userId, graph.get(userId));
+                }
+            }
+            return result;
+        });
+        when(userService.userExists(anyLong())).thenReturn(true);
+        when(userService.getUsersByIds(anyList())).thenAnswer(invocation -> invocation.<List<Long>>getArgument(0)
+                .stream().map(FriendSuggestionServiceTest::user).toList());
+        service = new FriendSuggestionService(friendshipStorage, userService, 2, 1);
+    }
+
+    @AfterEach
+    void tearDown() {
+        service.shutdown();
+    }
+
+    @Test
+    void ranksByMutualFriendsThenId() {
+        List<FriendSuggestion> suggestions = service.getSuggestions(1L, 10);
+
+        assertEquals(List.of(4L, 5L, 6L), suggestions.stream().map(s -> s.getUser().getId()).toList());
+        assertEquals(List.of(2, 2, 1), suggestions.stream().map(FriendSuggestion::getMutualFriends).toList());
+    }
+
+    @Test
+    void deletedUserEvictsCachedSuggestions() {
+        service.getSuggestions(1L, 10);
+        graph.put(2L, new long[]{1, 4});
+        graph.put(3L, new long[]{4, 6});
+        when(userService.userExists(5L)).thenReturn(false);
+
+        service.onStorageChange(new StorageChangeEvent(StorageChangeEvent.Entity.USER, 5));
+
+        assertEquals(List.of(4L, 6L), service.getSuggestions(1L, 10).stream().map(s -> s.getUser().getId()).toList());
+    }
+
+    private static User user(Long id) {
+        User user = new User();
+        user.setId(id);
+        return user;
+    }
+}
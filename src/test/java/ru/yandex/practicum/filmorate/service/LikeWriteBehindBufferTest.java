@@ -0,0 +1,74 @@
+package ru.yandex.practicum.filmorate.service;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.CannotGetJdbcConnectionException;
+import ru.yandex.practicum.filmorate.storage.FilmStorage;
+import ru.yandex.practicum.filmorate.storage.LikeChange;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+
+class LikeWriteBehindBufferTest {
+
+    private final FilmStorage filmStorage = mock(FilmStorage.class);
+    private final List<LikeChange> written = new ArrayList<>();
+    private final LikeWriteBehindBuffer buffer =
+            new LikeWriteBehindBuffer(filmStorage, true, Duration.ofHours(1), 100, false);
+
+    @Test
+    void keepsChangesWhenDatabaseIsUnavailable() {
+        databaseDown();
+        buffer.addLike(1L, 10L);
+        buffer.addLike(2L, 10L);
+
+        assertThrows(CannotGetJdbcConnectionException.class, buffer::flush);
+
+        databaseUp();
+        buffer.removeLike(1L, 10L);
+        buffer.flush();
+
+        assertEquals(2, written.size());
+        assertEquals(List.of(1L, 2L), written.stream().map(LikeChange::filmId).toList());
+        assertTrue(written.stream().filter(change -> change.filmId() == 1L).noneMatch(LikeChange::liked));
+    }
+
+    @Test
+    void dropsOnlyRowsViolatingConstraints() {
+        doAnswer(invocation -> {
+            List<LikeChange> changes = invocation.getArgument(0);
+            if (changes.stream().anyMatch(change -> change.filmId() == 99L)) {
+                throw new DataIntegrityViolationException("fk");
+            }
+            written.addAll(changes);
+            return null;
+        }).when(filmStorage).applyLikeChanges(anyList());
+        buffer.addLike(1L, 10L);
+        buffer.addLike(99L, 10L);
+        buffer.addLike(2L, 10L);
+
+        buffer.flush();
+        buffer.flush();
+
+        assertEquals(List.of(1L, 2L), written.stream().map(LikeChange::filmId).toList());
+    }
+
+    private void databaseDown() {
+        doAnswer(invocation -> {
+            throw new CannotGetJdbcConnectionException("down");
+        }).when(filmStorage).applyLikeChanges(anyList());
+    }
+
+    private void databaseUp() {
+        doAnswer(invocation -> written.addAll(invocation.getArgument(0)))
+                .when(filmStorage).applyLikeChanges(anyList());
+    }
+}
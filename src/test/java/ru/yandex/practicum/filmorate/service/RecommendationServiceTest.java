@@ -0,0 +1,78 @@
+package ru.yandex.practicum.filmorate.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import ru.yandex.practicum.filmorate.storage.FilmStorage;
+import ru.yandex.practicum.filmorate.storage.LikeIndex;
+import ru.yandex.practicum.filmorate.storage.LongArraySets;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class RecommendationServiceTest {
+
+    private final LikeIndex likeIndex = mock(LikeIndex.class);
+    private final FilmStorage filmStorage = mock(FilmStorage.class);
+    private RecommendationService service;
+
+    @BeforeEach
+    void setUp() {
+        Map<Long, long[]> filmsByUser = Map.of(
+                1L, new long[]{1, 2},
+                2L, new long[]{1, 2, 3},
+                3L, new long[]{2, 4},
+                4L, new long[]{5});
+        Map<Long, long[]> usersByFilm = Map.of(
+                1L, new long[]{1, 2},
+                2L, new long[]{1, 2, 3},
+                3L, new long[]{2},
+                4L, new long[]{3},
+                5L, new long[]{4});
+        when(likeIndex.getFilmIds(anyLong())).thenAnswer(invocation ->
+                filmsByUser.getOrDefault(invocation.<Long>getArgument(0), LongArraySets.EMPTY));
+        when(likeIndex.getUserIds(anyLong())).thenAnswer(invocation ->
+                usersByFilm.getOrDefault(invocation.<Long>getArgument(0), LongArraySets.EMPTY));
+        when(filmStorage.getFilmsByIds(anyList())).thenReturn(List.of());
+        service = new RecommendationService(likeIndex, filmStorage, mock(UserService.class), 1);
+    }
+
+    @AfterEach
+    void tearDown() {
+        service.shutdown();
+    }
+
+    @Test
+    void ranksUnseenFilmsByNeighborSimilarity() {
+        service.getRecommendations(1L, 10);
+
+        // Жаккар: пользователь 2 - 2/3, пользователь 3 - 1/3; пользователь 4 общих лайков не имеет
+        verify(filmStorage).getFilmsByIds(List.of(3L, 4L));
+    }
+
+    @Test
+    void respectsLimit() {
+        service.getRecommendations(1L, 1);
+
+        verify(filmStorage).getFilmsByIds(List.of(3L));
+    }
+
+    @Test
+    void userWithoutCoLikersGetsNothing() {
+        service.getRecommendations(4L, 10);
+
+        verify(filmStorage).getFilmsByIds(List.of());
+    }
+
+    @Test
+    void userWithoutLikesGetsNothing() {
+        assertEquals(List.of(), service.getRecommendations(5L, 10));
+    }
+}
@@ -0,0 +1,63 @@
+package ru.yandex.practicum.filmorate.storage;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import ru.yandex.practicum.filmorate.model.Genre;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.awaitility.Awaitility.await;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class CachedGenreStorageTest {
+
+    private final GenreDbStorage genreDbStorage = mock(GenreDbStorage.class);
+    private final CachedGenreStorage storage = new CachedGenreStorage(genreDbStorage, new SimpleMeterRegistry());
+
+    @Test
+    void invalidateDuringLoadDoesNotKeepOldSnapshot() throws Exception {
+        AtomicReference<String> name = new AtomicReference<>("Комедия");
+        CountDownLatch loading = new CountDownLatch(1);
+        CountDownLatch releaseLoad = new CountDownLatch(1);
+        when(genreDbStorage.getAllGenres()).thenAnswer(invocation -> {
+            // Загрузка прочитала строки до правки таблицы и пишет их в кэш после
+            List<Genre> rows = List.of(new Genre(1L, name.get()));
+            loading.countDown();
+            releaseLoad.await();
+            return rows;
+        });
+
+        CompletableFuture<Genre> staleLoad = CompletableFuture.supplyAsync(
+                () -> storage.getGenreById(1L).orElseThrow());
+        loading.await();
+        name.set("Драма");
+        Thread invalidator = new Thread(storage::invalidate);
+        invalidator.start();
+        await().until(() -> invalidator.getState() == Thread.State.WAITING);
+        assertEquals(0, storage.getVersion());
+
+        releaseLoad.countDown();
+        invalidator.join();
+
+        assertEquals("Комедия", staleLoad.get().getName());
+        assertEquals(1, storage.getVersion());
+        assertEquals("Драма", storage.getGenreById(1L).orElseThrow().getName());
+    }
+
+    @Test
+    void invalidateWithoutLoadBumpsVersionAndReloads() {
+        when(genreDbStorage.getAllGenres()).thenReturn(List.of(new Genre(1L, "Комедия")));
+        storage.preload();
+
+        storage.invalidate();
+
+        assertEquals(1, storage.getVersion());
+        assertFalse(storage.getAllGenres().isEmpty());
+    }
+}
@@ -0,0 +1,153 @@
+package ru.yandex.practicum.filmorate.storage;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.MpaRating;
+import ru.yandex.practicum.filmorate.model.User;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Счетчики like_count и friend_count ведутся хранилищами вместе с самими лайками и дружбами.
+ * Каждый тест создает свои фильмы и пользователей, поэтому общая база тестам не мешает.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE, properties = {
+        "spring.datasource.url=jdbc:h2:mem:counts;DB_CLOSE_DELAY=-1;MODE=PostgreSQL",
+        "filmorate.likes.write-behind.enabled=false"})
+class DenormalizedCountsTest {
+
+    @Autowired
+    private FilmDbStorage filmStorage;
+    @Autowired
+    private UserDbStorage userStorage;
+    @Autowired
+    private FriendshipDbStorage friendshipStorage;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void likeAndUnlikeAdjustLikeCount() {
+        long filmId = film();
+        long first = user();
+        long second = user();
+
+        filmStorage.addLike(filmId, first);
+        filmStorage.addLike(filmId, second);
+        assertEquals(2, likeCount(filmId));
+
+        filmStorage.removeLike(filmId, first);
+        assertEquals(1, likeCount(filmId));
+        assertEquals(1, filmStorage.getFilmById(filmId).getLikeCount());
+    }
+
+    @Test
+    void removingMissingLikeKeepsLikeCount() {
+        long filmId = film();
+        long liker = user();
+        filmStorage.addLike(filmId, liker);
+
+        filmStorage.removeLike(filmId, user());
+        filmStorage.removeLike(filmId, liker);
+        filmStorage.removeLike(filmId, liker);
+
+        assertEquals(0, likeCount(filmId));
+    }
+
+    @Test
+    void writeBehindBatchCountsOnlyRowsThatChanged() {
+        long filmId = film();
+        long alreadyLiked = user();
+        long newLiker = user();
+        long unliker = user();
+        long neverLiked = user();
+        filmStorage.addLike(filmId, alreadyLiked);
+        filmStorage.addLike(filmId, unliker);
+
+        Instant now = Instant.now();
+        filmStorage.applyLikeChanges(List.of(
+                new LikeChange(filmId, alreadyLiked, true, now),
+                new LikeChange(filmId, newLiker, true, now),
+                new LikeChange(filmId, unliker, false, now),
+                new LikeChange(filmId, neverLiked, false, now)));
+
+        assertEquals(2, likeCount(filmId));
+        assertEquals(2, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM likes WHERE film_id = ?",
+                Integer.class, filmId));
+    }
+
+    @Test
+    void addAndRemoveFriendAdjustFriendCount() {
+        long userId = user();
+        long first = user();
+        long second = user();
+
+        friendshipStorage.addFriend(userId, first);
+        friendshipStorage.addFriend(userId, second);
+        assertEquals(2, friendCount(userId));
+        assertEquals(0, friendCount(first));
+
+        friendshipStorage.removeFriend(userId, first);
+        friendshipStorage.removeFriend(userId, first);
+        assertEquals(1, friendCount(userId));
+        assertEquals(1, userStorage.getUserById(userId).getFriendCount());
+    }
+
+    @Test
+    void deletingUserCascadesToLikeAndFriendCounts() {
+        long firstFilm = film();
+        long secondFilm = film();
+        long deleted = user();
+        long follower = user();
+        long friend = user();
+        long otherLiker = user();
+        filmStorage.addLike(firstFilm, deleted);
+        filmStorage.addLike(secondFilm, deleted);
+        filmStorage.addLike(secondFilm, otherLiker);
+        friendshipStorage.addFriend(follower, deleted);
+        friendshipStorage.addFriend(follower, friend);
+        friendshipStorage.addFriend(deleted, friend);
+
+        userStorage.deleteUser(deleted);
+
+        assertEquals(0, likeCount(firstFilm));
+        assertEquals(1, likeCount(secondFilm));
+        assertEquals(1, friendCount(follower));
+        assertEquals(0, friendCount(friend));
+        assertEquals(List.of(friend), friendshipStorage.getFriendIds(follower));
+    }
+
+    private int likeCount(long filmId) {
+        return jdbcTemplate.queryForObject("SELECT like_count FROM films WHERE id = ?", Integer.class, filmId);
+    }
+
+    private int friendCount(long userId) {
+        return jdbcTemplate.queryForObject("SELECT friend_count FROM users WHERE user_id = ?", Integer.class, userId);
+    }
+
+    private long film() {
+        Film film = new Film();
+        film.setName("Фильм");
+        film.setDescription("Описание");
+        film.setReleaseDate(LocalDate.of(2000, 1, 1));
+        film.setDuration(100);
+        MpaRating mpa = new MpaRating();
+        mpa.setId(1L);
+        film.setMpa(mpa);
+        return filmStorage.create(film).getId();
+    }
+
+    private long user() {
+        User user = new User();
+        user.setEmail("user@example.com");
+        user.setLogin("user");
+        user.setBirthday(LocalDate.of(1990, 1, 1));
+        return userStorage.createUser(user).getId();
+    }
+}
@@ -0,0 +1,97 @@
+package ru.yandex.practicum.filmorate.storage;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.util.unit.DataSize;
+import ru.yandex.practicum.filmorate.model.Film;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class FilmCacheTest {
+
+    private final AtomicLong genreVersion = new AtomicLong();
+    private final AtomicInteger loads = new AtomicInteger();
+    private FilmCache filmCache;
+
+    @BeforeEach
+    void setUp() {
+        GenreStorage genreStorage = mock(GenreStorage.class);
+        when(genreStorage.getVersion()).thenAnswer(invocation -> genreVersion.get());
+        filmCache = new FilmCache(genreStorage, mock(MpaRatingStorage.class), new SimpleMeterRegistry(),
+                true, DataSize.ofMegabytes(1));
+    }
+
+    @Test
+    void servesRepeatedReadsFromCache() {
+        Film first = filmCache.get(1, loader("Матрица"));
+        Film second = filmCache.get(1, loader("Матрица"));
+
+        assertSame(first, second);
+        assertEquals(1, loads.get());
+    }
+
+    @Test
+    void doesNotCacheFilmLoadedConcurrentlyWithWrite() {
+        // Запись завершилась, пока шла загрузка: загруженный фильм мог не увидеть изменения
+        filmCache.get(1, () -> {
+            Film film = loader("Старое название").get();
+            filmCache.invalidate(1);
+            return film;
+        });
+
+        Film film = filmCache.get(1, loader("Новое название"));
+
+        assertEquals("Новое название", film.getName());
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    void invalidateDropsCachedFilm() {
+        filmCache.get(1, loader("Старое название"));
+        filmCache.invalidate(1);
+
+        assertEquals("Новое название", filmCache.get(1, loader("Новое название")).getName());
+        assertEquals(1, filmCache.getVersion(1));
+    }
+
+    @Test
+    void removeForgetsVersionOfDeletedFilm() {
+        filmCache.get(1, loader("Матрица"));
+        filmCache.invalidate(1);
+        filmCache.get(1, loader("Матрица"));
+
+        filmCache.remove(1);
+
+        assertEquals(0, filmCache.getVersion(1));
+        filmCache.get(1, loader("Матрица"));
+        assertEquals(3, loads.get());
+    }
+
+    @Test
+    void dictionaryChangeMakesEntriesStale() {
+        filmCache.get(1, loader("Матрица"));
+        genreVersion.incrementAndGet();
+
+        filmCache.get(1, loader("Матрица"));
+
+        assertEquals(2, loads.get());
+    }
+
+    private Supplier<Film> loader(String name) {
+        return () -> {
+            loads.incrementAndGet();
+            Film film = new Film();
+            film.setId(1L);
+            film.setName(name);
+            return film;
+        };
+    }
+}
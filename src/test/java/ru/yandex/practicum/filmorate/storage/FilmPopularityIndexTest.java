@@ -0,0 +1,76 @@
+package ru.yandex.practicum.filmorate.storage;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+
+class FilmPopularityIndexTest {
+
+    private FilmPopularityIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = new FilmPopularityIndex(mock(JdbcTemplate.class));
+        index.addFilm(1, 1999, List.of(1L));
+        index.addFilm(2, 2010, List.of(1L, 2L));
+        index.addFilm(3, 2010, List.of());
+    }
+
+    @Test
+    void ranksByLikesThenId() {
+        index.incrementLikes(3);
+        index.incrementLikes(3);
+        index.incrementLikes(2);
+
+        assertEquals(List.of(3L, 2L, 1L), index.getTopFilmIds(10, null, null));
+        assertEquals(List.of(3L, 2L), index.getTopFilmIds(2, null, null));
+        assertEquals(2, index.getLikes(3));
+    }
+
+    @Test
+    void decrementAtZeroKeepsFilmRanked() {
+        index.decrementLikes(1);
+
+        assertEquals(0, index.getLikes(1));
+        assertEquals(List.of(1L, 2L, 3L), index.getTopFilmIds(10, null, null));
+        assertEquals(List.of(1L, 2L), index.getTopFilmIds(10, 1L, null));
+    }
+
+    @Test
+    void filtersByGenreYearAndBoth() {
+        index.incrementLikes(1);
+
+        assertEquals(List.of(1L, 2L), index.getTopFilmIds(10, 1L, null));
+        assertEquals(List.of(2L, 3L), index.getTopFilmIds(10, null, 2010));
+        assertEquals(List.of(2L), index.getTopFilmIds(10, 2L, 2010));
+        assertEquals(List.of(), index.getTopFilmIds(10, 3L, null));
+        assertTrue(index.matches(2, 2L, 2010));
+        assertFalse(index.matches(1, 2L, null));
+    }
+
+    @Test
+    void readdingFilmMovesItToNewFacetsAndKeepsLikes() {
+        index.incrementLikes(1);
+        index.addFilm(1, 2010, List.of(2L));
+
+        assertEquals(List.of(2L), index.getTopFilmIds(10, 1L, null));
+        assertEquals(List.of(1L, 2L), index.getTopFilmIds(10, 2L, 2010));
+        assertEquals(1, index.getLikes(1));
+    }
+
+    @Test
+    void removedFilmLeavesAllRankings() {
+        index.removeFilm(2);
+
+        assertEquals(List.of(1L, 3L), index.getTopFilmIds(10, null, null));
+        assertEquals(List.of(1L), index.getTopFilmIds(10, 1L, null));
+        assertFalse(index.matches(2, null, null));
+    }
+}
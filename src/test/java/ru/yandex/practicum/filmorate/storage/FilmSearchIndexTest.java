@@ -0,0 +1,73 @@
+package ru.yandex.practicum.filmorate.storage;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.EnumSet;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.mockito.Mockito.mock;
+
+class FilmSearchIndexTest {
+
+    private static final Set<FilmSearchIndex.Field> TITLE = EnumSet.of(FilmSearchIndex.Field.TITLE);
+    private static final Set<FilmSearchIndex.Field> ALL = EnumSet.allOf(FilmSearchIndex.Field.class);
+
+    private FilmSearchIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = new FilmSearchIndex(mock(JdbcTemplate.class));
+        index.rebuild();
+        index.putFilm(1, "Матрица", "Хакер узнает правду о мире");
+        index.putFilm(2, "Матрица: Перезагрузка", "Продолжение истории Нео");
+        index.putFilm(3, "Ёжик в тумане", "Мультфильм о ёжике и медвежонке");
+        index.putFilm(4, "Toy Stories", "Toys come to life");
+    }
+
+    @Test
+    void matchesWordPrefix() {
+        assertArrayEquals(new long[]{1, 2}, index.search("матр", TITLE));
+        assertArrayEquals(new long[]{2}, index.search("перезаг", TITLE));
+        assertArrayEquals(new long[0], index.search("атрица", TITLE));
+    }
+
+    @Test
+    void intersectsAllQueryWords() {
+        assertArrayEquals(new long[]{2}, index.search("матрица перезагрузка", TITLE));
+        assertArrayEquals(new long[0], index.search("матрица туман", TITLE));
+    }
+
+    @Test
+    void matchesOtherWordForms() {
+        assertArrayEquals(new long[]{1, 2}, index.search("матрицы", TITLE));
+        assertArrayEquals(new long[]{1, 2}, index.search("МАТРИЦЕЙ", TITLE));
+        assertArrayEquals(new long[]{3}, index.search("ежики", TITLE));
+        assertArrayEquals(new long[]{4}, index.search("story", TITLE));
+        assertArrayEquals(new long[]{4}, index.search("toys", TITLE));
+    }
+
+    @Test
+    void searchesDescriptionOnlyWhenRequested() {
+        assertArrayEquals(new long[0], index.search("хакер", TITLE));
+        assertArrayEquals(new long[]{1}, index.search("хакеры", ALL));
+    }
+
+    @Test
+    void ignoresStopWordsAndShortPrefixes() {
+        assertArrayEquals(new long[0], index.search("и в о", ALL));
+        assertArrayEquals(new long[]{3}, index.search("в тумане", TITLE));
+    }
+
+    @Test
+    void reindexesAndRemovesFilms() {
+        index.putFilm(1, "Начало", null);
+        assertArrayEquals(new long[]{2}, index.search("матрица", TITLE));
+        assertArrayEquals(new long[]{1}, index.search("начал", TITLE));
+
+        index.removeFilm(2);
+        assertArrayEquals(new long[0], index.search("матрица", TITLE));
+    }
+}
@@ -0,0 +1,67 @@
+package ru.yandex.practicum.filmorate.storage;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class InMemoryFriendshipStorageTest {
+
+    private final FriendshipDbStorage friendshipDbStorage = mock(FriendshipDbStorage.class);
+    private final UserStorage userStorage = mock(UserStorage.class);
+    private InMemoryFriendshipStorage storage;
+
+    @BeforeEach
+    void setUp() {
+        when(friendshipDbStorage.streamFriendships()).thenReturn(Stream.of(
+                new long[]{1, 2}, new long[]{1, 3}, new long[]{2, 3}, new long[]{3, 1}));
+        storage = new InMemoryFriendshipStorage(friendshipDbStorage, userStorage);
+        storage.load();
+    }
+
+    @Test
+    void deletedUserDisappearsFromBothDirections() {
+        when(userStorage.existsById(3L)).thenReturn(false);
+
+        storage.onStorageChange(new StorageChangeEvent(StorageChangeEvent.Entity.USER, 3));
+
+        assertEquals(List.of(2L), storage.getFriendIds(1L));
+        assertEquals(List.of(), storage.getFriendIds(2L));
+        assertEquals(List.of(), storage.getFriendIds(3L));
+    }
+
+    @Test
+    void updatedUserKeepsEdges() {
+        when(userStorage.existsById(3L)).thenReturn(true);
+
+        storage.onStorageChange(new StorageChangeEvent(StorageChangeEvent.Entity.USER, 3));
+
+        assertEquals(List.of(1L), storage.getFriendIds(3L));
+        assertEquals(List.of(2L, 3L), storage.getFriendIds(1L));
+    }
+
+    @Test
+    void concurrentChangesOfOneUserAreNotLost() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<?>> futures = Stream.iterate(100L, id -> id + 1).limit(200)
+                    .<Future<?>>map(friendId -> executor.submit(() -> storage.addFriend(2L, friendId)))
+                    .toList();
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+
+        assertEquals(201, storage.getFriendIds(2L).size());
+    }
+}
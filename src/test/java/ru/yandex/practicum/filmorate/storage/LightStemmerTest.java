@@ -0,0 +1,43 @@
+package ru.yandex.practicum.filmorate.storage;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class LightStemmerTest {
+
+    @Test
+    void stripsRussianCaseEndings() {
+        assertEquals("матриц", LightStemmer.stem("матрица"));
+        assertEquals("матриц", LightStemmer.stem("матрицы"));
+        assertEquals("матриц", LightStemmer.stem("матрицами"));
+        assertEquals("красн", LightStemmer.stem("красного"));
+    }
+
+    @Test
+    void keepsShortRussianStems() {
+        assertEquals("кот", LightStemmer.stem("кот"));
+        assertEquals("кот", LightStemmer.stem("коты"));
+        assertEquals("мир", LightStemmer.stem("мир"));
+        assertEquals("мир", LightStemmer.stem("мира"));
+        assertEquals("дом", LightStemmer.stem("дома"));
+    }
+
+    @Test
+    void stripsEnglishPlurals() {
+        assertEquals("film", LightStemmer.stem("films"));
+        assertEquals("stori", LightStemmer.stem("stories"));
+        assertEquals("stori", LightStemmer.stem("story"));
+        assertEquals("movi", LightStemmer.stem("movies"));
+        assertEquals("box", LightStemmer.stem("boxes"));
+        assertEquals("class", LightStemmer.stem("class"));
+        assertEquals("toy", LightStemmer.stem("toy"));
+        assertEquals("toy", LightStemmer.stem("toys"));
+    }
+
+    @Test
+    void leavesMixedAndNumericTokens() {
+        assertEquals("2012", LightStemmer.stem("2012"));
+        assertEquals("3dfilms", LightStemmer.stem("3dfilms"));
+    }
+}
@@ -0,0 +1,66 @@
+package ru.yandex.practicum.filmorate.storage;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class LongArraySetsTest {
+
+    @Test
+    void insertKeepsOrderAndIgnoresDuplicates() {
+        long[] set = LongArraySets.insert(null, 5);
+        set = LongArraySets.insert(set, 1);
+        set = LongArraySets.insert(set, 9);
+        set = LongArraySets.insert(set, 7);
+
+        assertArrayEquals(new long[]{1, 5, 7, 9}, set);
+        assertSame(set, LongArraySets.insert(set, 7));
+    }
+
+    @Test
+    void insertDoesNotModifySource() {
+        long[] source = {1, 3};
+
+        LongArraySets.insert(source, 2);
+
+        assertArrayEquals(new long[]{1, 3}, source);
+    }
+
+    @Test
+    void removeReturnsNullForLastElement() {
+        long[] set = {1, 5, 9};
+
+        assertArrayEquals(new long[]{1, 9}, LongArraySets.remove(set, 5));
+        assertSame(set, LongArraySets.remove(set, 4));
+        assertNull(LongArraySets.remove(new long[]{5}, 5));
+        assertNull(LongArraySets.remove(null, 5));
+    }
+
+    @Test
+    void containsHandlesNull() {
+        assertTrue(LongArraySets.contains(new long[]{2, 4}, 4));
+        assertFalse(LongArraySets.contains(new long[]{2, 4}, 3));
+        assertFalse(LongArraySets.contains(null, 3));
+    }
+
+    @Test
+    void intersectMergesSortedArrays() {
+        assertArrayEquals(new long[]{3, 7}, LongArraySets.intersect(new long[]{1, 3, 5, 7}, new long[]{2, 3, 7, 8}));
+        assertArrayEquals(new long[]{1, 2}, LongArraySets.intersect(new long[]{1, 2}, new long[]{1, 2}));
+        assertEquals(0, LongArraySets.intersect(new long[]{1}, new long[]{2}).length);
+        assertEquals(0, LongArraySets.intersect(null, new long[]{2}).length);
+    }
+
+    @Test
+    void toListPreservesOrder() {
+        assertEquals(List.of(1L, 4L), LongArraySets.toList(new long[]{1, 4}));
+        assertEquals(List.of(), LongArraySets.toList(null));
+    }
+}
@@ -0,0 +1,86 @@
+package ru.yandex.practicum.filmorate.storage;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class LongCounterTest {
+
+    @Test
+    void countsKeysIncludingZero() {
+        LongCounter counter = new LongCounter(2);
+        counter.increment(5);
+        counter.increment(0);
+        counter.increment(5);
+        counter.increment(Long.MAX_VALUE);
+
+        assertEquals(3, counter.size());
+        assertEquals(2, counter.get(5));
+        assertEquals(1, counter.get(0));
+        assertEquals(1, counter.get(Long.MAX_VALUE));
+        assertEquals(0, counter.get(6));
+    }
+
+    @Test
+    void matchesHashMapAfterGrowth() {
+        Random random = new Random(42);
+        LongCounter counter = new LongCounter(4);
+        Map<Long, Integer> expected = new HashMap<>();
+        for (int i = 0; i < 50_000; i++) {
+            long key = random.nextInt(10_000);
+            counter.increment(key);
+            expected.merge(key, 1, Integer::sum);
+        }
+
+        Map<Long, Integer> actual = new HashMap<>();
+        counter.forEach(actual::put);
+        assertEquals(expected, actual);
+        assertEquals(expected.size(), counter.size());
+    }
+
+    @Test
+    void countAllSplitsLargeInputAcrossPool() {
+        Random random = new Random(7);
+        List<long[]> arrays = new ArrayList<>();
+        Map<Long, Integer> expected = new HashMap<>();
+        // Разные длины, включая пустые и один массив больше порога, чтобы деление шло по числу id
+        for (int i = 0; i < 300; i++) {
+            long[] array = new long[i == 150 ? 40_000 : random.nextInt(1_000)];
+            for (int j = 0; j < array.length; j++) {
+                array[j] = random.nextInt(20_000);
+                expected.merge(array[j], 1, Integer::sum);
+            }
+            arrays.add(array);
+        }
+
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            LongCounter counter = LongCounter.countAll(arrays, pool);
+
+            Map<Long, Integer> actual = new HashMap<>();
+            counter.forEach(actual::put);
+            assertEquals(expected, actual);
+            assertEquals(expected.size(), counter.size());
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    void countAllOfSmallInputStaysInCallerThread() {
+        ForkJoinPool pool = new ForkJoinPool(1);
+        pool.shutdown();
+
+        LongCounter counter = LongCounter.countAll(List.of(new long[]{0, 1}, new long[]{1}, new long[0]), pool);
+
+        assertEquals(1, counter.get(0));
+        assertEquals(2, counter.get(1));
+    }
+}
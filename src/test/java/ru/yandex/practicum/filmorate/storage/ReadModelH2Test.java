@@ -0,0 +1,137 @@
+package ru.yandex.practicum.filmorate.storage;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.MpaRating;
+import ru.yandex.practicum.filmorate.model.User;
+import ru.yandex.practicum.filmorate.service.FilmService;
+import ru.yandex.practicum.filmorate.service.FriendshipService;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
+
+import static org.awaitility.Awaitility.await;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Полный путь модели чтения на встроенной H2: запись через хранилище, событие после коммита,
+ * поток применения и чтение через сервисы, которые при свежей модели отдают данные из нее.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE, properties = {
+        "spring.datasource.url=jdbc:h2:mem:read-model;DB_CLOSE_DELAY=-1;MODE=PostgreSQL",
+        "filmorate.read-model.enabled=true",
+        "filmorate.read-model.max-staleness=1s"})
+class ReadModelH2Test {
+
+    private static final Duration MAX_STALENESS = Duration.ofSeconds(1);
+
+    @Autowired
+    private ReadModel readModel;
+    @Autowired
+    private FilmStorage filmStorage;
+    @Autowired
+    private UserStorage userStorage;
+    @Autowired
+    private FriendshipStorage friendshipStorage;
+    @Autowired
+    private FilmService filmService;
+    @Autowired
+    private FriendshipService friendshipService;
+
+    @BeforeEach
+    void waitForLoad() {
+        await().until(readModel::isServing);
+    }
+
+    @Test
+    void filmWritesReachReadModel() {
+        Film film = filmStorage.create(film("Матрица"));
+        long filmId = film.getId();
+        await().atMost(MAX_STALENESS).until(() -> modelFilm(filmId).isPresent());
+
+        film.setName("Матрица: перезагрузка");
+        filmStorage.updateFilm(film);
+        await().atMost(MAX_STALENESS).until(() ->
+                modelFilm(filmId).map(Film::getName).orElse("").equals("Матрица: перезагрузка"));
+
+        long userId = userStorage.createUser(user()).getId();
+        filmStorage.addLike(filmId, userId);
+        await().atMost(MAX_STALENESS).until(() -> modelFilm(filmId).map(Film::getLikeCount).orElse(0) == 1);
+        assertTrue(readModel.getPopularFilms(1000, null, null).orElseThrow().stream()
+                .anyMatch(popular -> popular.getId() == filmId && popular.getLikeCount() == 1));
+        assertEquals("Матрица: перезагрузка", filmService.getAllFilms().stream()
+                .filter(served -> served.getId() == filmId).findFirst().orElseThrow().getName());
+
+        filmStorage.deleteFilm(filmId);
+        await().atMost(MAX_STALENESS).until(() -> modelFilm(filmId).isEmpty());
+        assertTrue(readModel.getPopularFilms(1000, null, null).orElseThrow().stream()
+                .noneMatch(popular -> popular.getId() == filmId));
+    }
+
+    @Test
+    void friendWritesAndUserDeleteReachReadModel() {
+        long userId = userStorage.createUser(user()).getId();
+        long friendId = userStorage.createUser(user()).getId();
+        long otherId = userStorage.createUser(user()).getId();
+        long followerId = userStorage.createUser(user()).getId();
+
+        friendshipStorage.addFriend(userId, friendId);
+        friendshipStorage.addFriend(userId, otherId);
+        friendshipStorage.addFriend(followerId, userId);
+        await().atMost(MAX_STALENESS).until(() -> modelFriendIds(userId).equals(List.of(friendId, otherId)));
+        assertEquals(List.of(friendId, otherId),
+                friendshipService.getFriends(userId).stream().map(User::getId).toList());
+        await().atMost(MAX_STALENESS).until(() -> modelFriendCount(followerId, userId) == 2);
+
+        userStorage.deleteUser(friendId);
+        await().atMost(MAX_STALENESS).until(() -> modelFriendIds(userId).equals(List.of(otherId)));
+        // Вместе со списком перечитан и сам пользователь: его число друзей уменьшилось
+        await().atMost(MAX_STALENESS).until(() -> modelFriendCount(followerId, userId) == 1);
+        assertEquals(List.of(), readModel.getFriends(friendId).orElseThrow());
+        assertEquals(List.of(otherId), friendshipService.getFriends(userId).stream().map(User::getId).toList());
+    }
+
+    private Optional<Film> modelFilm(long filmId) {
+        return readModel.findAllFilms().orElseThrow().stream()
+                .filter(film -> film.getId() == filmId)
+                .findFirst();
+    }
+
+    private List<Long> modelFriendIds(long userId) {
+        return readModel.getFriends(userId).orElseThrow().stream().map(User::getId).toList();
+    }
+
+    private int modelFriendCount(long userId, long friendId) {
+        return readModel.getFriends(userId).orElseThrow().stream()
+                .filter(friend -> friend.getId() == friendId)
+                .mapToInt(User::getFriendCount)
+                .findFirst()
+                .orElse(-1);
+    }
+
+    private static Film film(String name) {
+        Film film = new Film();
+        film.setName(name);
+        film.setDescription("Описание");
+        film.setReleaseDate(LocalDate.of(1999, 3, 31));
+        film.setDuration(136);
+        MpaRating mpa = new MpaRating();
+        mpa.setId(4L);
+        film.setMpa(mpa);
+        return film;
+    }
+
+    private static User user() {
+        User user = new User();
+        user.setEmail("neo@example.com");
+        user.setLogin("neo");
+        user.setBirthday(LocalDate.of(1964, 9, 2));
+        return user;
+    }
+}
@@ -0,0 +1,88 @@
+package ru.yandex.practicum.filmorate.storage;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import ru.yandex.practicum.filmorate.model.Film;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.function.Consumer;
+
+import static org.awaitility.Awaitility.await;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.atLeast;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class ReadModelTest {
+
+    private final Map<Long, Film> database = new ConcurrentSkipListMap<>();
+    private final CountDownLatch applyBlocked = new CountDownLatch(1);
+    private final CountDownLatch releaseApply = new CountDownLatch(1);
+    private final FilmStorage filmStorage = mock(FilmStorage.class);
+    private ReadModel readModel;
+
+    @BeforeEach
+    void setUp() {
+        database.put(1L, film(1, "Матрица"));
+        doAnswer(invocation -> {
+            database.values().forEach(invocation.<Consumer<Film>>getArgument(0));
+            return null;
+        }).when(filmStorage).forEachFilm(any());
+        when(filmStorage.getFilmsByIds(anyList())).thenAnswer(invocation -> {
+            applyBlocked.countDown();
+            releaseApply.await();
+            return invocation.<List<Long>>getArgument(0).stream().map(database::get).toList();
+        });
+        FriendshipStorage friendshipStorage = mock(FriendshipStorage.class);
+        when(friendshipStorage.getFriendIdsOf(anyCollection())).thenReturn(Map.of());
+
+        readModel = new ReadModel(filmStorage, mock(UserStorage.class), friendshipStorage,
+                mock(FilmPopularityIndex.class), true, Duration.ofMinutes(1), 2, false);
+        readModel.start();
+        await().until(readModel::isServing);
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        releaseApply.countDown();
+        readModel.stop();
+    }
+
+    @Test
+    void overflowDropsQueueAndReloadsEverything() throws InterruptedException {
+        readModel.onStorageChange(new StorageChangeEvent(StorageChangeEvent.Entity.FILM, 1));
+        applyBlocked.await();
+
+        database.put(2L, film(2, "Чужой"));
+        database.put(3L, film(3, "Брат"));
+        for (long id = 2; id <= 4; id++) {
+            readModel.onStorageChange(new StorageChangeEvent(StorageChangeEvent.Entity.FILM, id));
+        }
+        assertFalse(readModel.isServing());
+
+        releaseApply.countDown();
+        await().until(readModel::isServing);
+
+        assertEquals(List.of(1L, 2L, 3L),
+                readModel.findAllFilms().orElseThrow().stream().map(Film::getId).toList());
+        verify(filmStorage, atLeast(2)).forEachFilm(any());
+    }
+
+    private static Film film(long id, String name) {
+        Film film = new Film();
+        film.setId(id);
+        film.setName(name);
+        return film;
+    }
+}
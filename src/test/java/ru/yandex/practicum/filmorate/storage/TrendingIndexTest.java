@@ -0,0 +1,135 @@
+package ru.yandex.practicum.filmorate.storage;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.mock;
+
+class TrendingIndexTest {
+
+    private static final Duration HOUR = Duration.ofHours(1);
+    private static final Duration DAY = Duration.ofDays(1);
+
+    private final MutableClock clock = new MutableClock(Instant.parse("2024-05-01T10:30:00Z"));
+    private TrendingIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = new TrendingIndex(mock(JdbcTemplate.class), Duration.ofHours(3), clock);
+    }
+
+    @Test
+    void ranksByLikesInWindow() {
+        index.addLike(1, clock.instant());
+        index.addLike(2, clock.instant());
+        index.addLike(2, clock.instant());
+        index.addLike(3, clock.instant().minus(HOUR));
+
+        assertEquals(List.of(2L, 1L), top(HOUR));
+        assertEquals(List.of(2L, 1L, 3L), top(DAY));
+        assertEquals(List.of(2L, 3L), index.getTopFilmIds(10, DAY, filmId -> filmId != 1));
+    }
+
+    @Test
+    void likesLeaveWindowAsHoursPass() {
+        index.addLike(1, clock.instant());
+
+        clock.advance(HOUR);
+        assertEquals(List.of(), top(HOUR));
+        assertEquals(List.of(1L), top(DAY));
+
+        clock.advance(Duration.ofHours(2));
+        assertEquals(List.of(), top(DAY));
+    }
+
+    @Test
+    void reusedBucketStartsFromZero() {
+        index.addLike(1, clock.instant());
+        index.addLike(1, clock.instant());
+
+        // Через max-window часов ячейка та же, но час другой: старые лайки не должны прибавиться
+        clock.advance(Duration.ofHours(3));
+        index.addLike(1, clock.instant());
+
+        assertEquals(List.of(1L), top(HOUR));
+        index.addLike(2, clock.instant());
+        index.addLike(2, clock.instant());
+        assertEquals(List.of(2L, 1L), top(DAY));
+    }
+
+    @Test
+    void removingExpiredLikeDoesNotTouchReusedBucket() {
+        Instant oldLike = clock.instant();
+        index.addLike(1, oldLike);
+        clock.advance(Duration.ofHours(3));
+        index.addLike(1, clock.instant());
+        index.addLike(2, clock.instant());
+        index.addLike(2, clock.instant());
+
+        index.removeLike(1, oldLike);
+
+        assertEquals(List.of(2L, 1L), top(HOUR));
+    }
+
+    @Test
+    void ignoresLikesOlderThanMaxWindow() {
+        index.addLike(1, clock.instant().minus(Duration.ofHours(3)));
+
+        assertEquals(List.of(), top(DAY));
+    }
+
+    @Test
+    void evictExpiredKeepsFilmsWithLikesInWindow() {
+        index.addLike(1, clock.instant());
+        clock.advance(Duration.ofHours(2));
+        index.addLike(2, clock.instant());
+        clock.advance(HOUR);
+
+        index.evictExpired();
+
+        assertEquals(List.of(2L), top(DAY));
+        index.addLike(1, clock.instant());
+        assertEquals(List.of(1L, 2L), top(DAY));
+    }
+
+    private List<Long> top(Duration window) {
+        return index.getTopFilmIds(10, window, filmId -> true);
+    }
+
+    private static final class MutableClock extends Clock {
+
+        private Instant now;
+
+        MutableClock(Instant now) {
+            this.now = now;
+        }
+
+        void advance(Duration duration) {
+            now = now.plus(duration);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+    }
+}